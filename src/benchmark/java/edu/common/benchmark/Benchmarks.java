@@ -0,0 +1,109 @@
+package edu.common.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Helpers shared by the benchmark harnesses.
+ * <p>
+ * Start-up and first-call costs only show in a JVM that has not run the code yet, so the harnesses measure them in
+ * forked JVMs started with the classpath of the current one, each printing its figures on its last output line.
+ */
+final class Benchmarks {
+
+    static final String LOGBACK_CONFIGURATION = "logback-benchmark.xml";
+
+    static final String FORK = "--fork";
+
+    private Benchmarks() {}
+
+    /**
+     * Keeps the library logs out of the measurements. Must run before the first logger is created.
+     */
+    static void quietLogging() {
+        if (System.getProperty("logback.configurationFile") == null) {
+            System.setProperty("logback.configurationFile", LOGBACK_CONFIGURATION);
+        }
+    }
+
+    /**
+     * Runs {@code mainClass} with {@link #FORK} followed by {@code args} in a fresh JVM.
+     *
+     * @return Last line the forked JVM printed
+     */
+    static String fork(Class<?> mainClass, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"),
+                "-Dlogback.configurationFile=" + LOGBACK_CONFIGURATION,
+                mainClass.getName(), FORK));
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String last = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                last = line;
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || last == null) {
+            throw new IllegalStateException(mainClass.getSimpleName() + " " + String.join(" ", args)
+                    + " failed with exit code " + exitCode);
+        }
+        return last;
+    }
+
+    /**
+     * @return Loaded classes, then heap and metaspace used after a full GC in KB
+     */
+    static long[] memoryAfterGc() {
+        System.gc();
+        long metaspace = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getName().equals("Metaspace")) {
+                metaspace = pool.getUsage().getUsed();
+            }
+        }
+        return new long[] {
+                ManagementFactory.getClassLoadingMXBean().getLoadedClassCount(),
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / 1024,
+                metaspace / 1024};
+    }
+
+    /**
+     * @param samples one row of figures per run
+     * @return Median of each column
+     */
+    static long[] medians(List<long[]> samples) {
+        long[] medians = new long[samples.get(0).length];
+        for (int column = 0; column < medians.length; column++) {
+            long[] values = new long[samples.size()];
+            for (int row = 0; row < values.length; row++) {
+                values[row] = samples.get(row)[column];
+            }
+            Arrays.sort(values);
+            medians[column] = values[values.length / 2];
+        }
+        return medians;
+    }
+
+    static long[] parse(String line) {
+        return Arrays.stream(line.trim().split("\\s+")).mapToLong(Long::parseLong).toArray();
+    }
+
+    static String format(long[] values) {
+        StringBuilder line = new StringBuilder();
+        for (long value : values) {
+            line.append(line.length() == 0 ? "" : " ").append(value);
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package edu.common.benchmark;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import edu.common.SecretOperation;
+import edu.common.concurrent.SecretManagerExecutors;
+import edu.common.mock.FaultProfile;
+import edu.common.mock.InMemorySMService;
+import edu.common.mock.LatencyDistribution;
+import edu.common.trace.ReplayReport;
+import edu.common.trace.SecretTrace;
+import edu.common.trace.TraceReplayer;
+import edu.common.trace.ZipfTraceGenerator;
+
+/**
+ * Throughput of blocking calls as the number of calls in flight grows, on the executors of the two modes of
+ * {@link SecretManagerExecutors}: the bounded platform-thread pool of Java 11-20 ({@code platform}) and a virtual
+ * thread per task on Java 21+ ({@code virtual}, skipped on older JDKs). A platform thread per task
+ * ({@code platform-per-task}) separates the effect of the pool bound from the cost of the threads.
+ * <p>
+ * The target is an {@link InMemorySMService} whose reads block for a fixed latency, standing for the round trip of a
+ * remote call. For each level of calls in flight, a {@link TraceReplayer} replays reads at the rate that keeps that
+ * many calls in flight if every call completes in time (level / latency), and prints the throughput achieved and the
+ * p50 and p99 latencies, measured from the time each call was due. Every level replays the same number of calls, so
+ * an executor that cannot keep up takes longer instead of building an ever longer queue.
+ * <pre>
+ * java -cp ... edu.common.benchmark.ExecutorThroughputBenchmark [latency in ms, 20 by default] [calls per level, 4000 by default]
+ * </pre>
+ */
+public class ExecutorThroughputBenchmark {
+
+    private static final int[] IN_FLIGHT = {8, 32, 128, 512, 2048};
+
+    /** Size of the pool of the Java 11 {@link SecretManagerExecutors} */
+    private static final int POOL_SIZE = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+
+    public static void main(String[] args) throws Exception {
+        Benchmarks.quietLogging();
+        Duration latency = Duration.ofMillis(args.length > 0 ? Long.parseLong(args[0]) : 20);
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 4000;
+
+        Map<String, Supplier<ExecutorService>> modes = new LinkedHashMap<>();
+        modes.put("platform", () -> new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>()));
+        modes.put("platform-per-task", Executors::newCachedThreadPool);
+        if (Runtime.version().feature() >= 21) {
+            modes.put("virtual", ExecutorThroughputBenchmark::newVirtualThreadPerTaskExecutor);
+        } else {
+            System.out.println("Java " + Runtime.version().feature() + ": virtual threads need Java 21+, skipped");
+        }
+
+        InMemorySMService service = new InMemorySMService();
+        service.setFaultProfile(new FaultProfile(42).latency(SecretOperation.GET, LatencyDistribution.fixed(latency)));
+        System.out.println("mode              inFlight offeredPerSecond throughputPerSecond p50Micros p99Micros");
+        for (Map.Entry<String, Supplier<ExecutorService>> mode : modes.entrySet()) {
+            // JIT warm-up, not reported
+            replay(service, mode.getValue(), IN_FLIGHT[0], latency, calls);
+            for (int inFlight : IN_FLIGHT) {
+                double offered = inFlight * 1_000_000_000d / latency.toNanos();
+                ReplayReport report = replay(service, mode.getValue(), inFlight, latency, calls);
+                System.out.printf("%-17s %8d %16.0f %19.0f %9d %9d%n", mode.getKey(), inFlight, offered,
+                        report.getThroughputPerSecond(), report.getLatencyMicros().getP50(), report.getLatencyMicros().getP99());
+            }
+        }
+    }
+
+    private static ReplayReport replay(InMemorySMService service, Supplier<ExecutorService> executors, int inFlight,
+                                       Duration latency, int calls) {
+        double callsPerSecond = inFlight * 1_000_000_000d / latency.toNanos();
+        SecretTrace trace = new ZipfTraceGenerator(1000, 1.1, callsPerSecond, 0, 42)
+                .generate(Duration.ofNanos((long) (calls / callsPerSecond * 1_000_000_000d)));
+        ExecutorService executor = executors.get();
+        try {
+            TraceReplayer replayer = new TraceReplayer(service);
+            replayer.setExecutor(executor);
+            return replayer.replay(trace, 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}, called reflectively since this harness compiles on Java 11.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not available", e);
+        }
+    }
+}
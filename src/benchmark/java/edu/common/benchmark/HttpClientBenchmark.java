@@ -0,0 +1,98 @@
+package edu.common.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.common.ISecretManagerService;
+import edu.common.aws.AWSSecretManagerService;
+import edu.common.aws.StubSecretsManagerEndpoint;
+import edu.common.aws.v2.AWSSecretManagerV2Service;
+import edu.common.aws.v2.HttpClientType;
+import edu.common.mock.InMemorySMService;
+import edu.common.trace.ReplayReport;
+import edu.common.trace.SecretTrace;
+import edu.common.trace.TraceReplayer;
+import edu.common.trace.ZipfTraceGenerator;
+
+/**
+ * Start-up, memory and per-call latency of {@link AWSSecretManagerV2Service} with each {@link HttpClientType}, and of
+ * the SDK v1 {@link AWSSecretManagerService} for reference, against a {@link StubSecretsManagerEndpoint}.
+ * <p>
+ * Each run starts a fresh JVM per client and prints the time of the first {@code getSecret} (client creation
+ * included) in milliseconds, the p50 and p99 latencies in microseconds of a {@link TraceReplayer} replay (Zipf reads
+ * and updates of 100 secrets, 5% updates, at 100 calls per second, after the same replay at 10 times the speed to
+ * warm up the JIT), then the loaded classes and the heap and metaspace used after a full GC in KB. The medians are
+ * printed at the end.
+ * <pre>
+ * java -cp ... edu.common.benchmark.HttpClientBenchmark [runs, 5 by default] [replayed calls, 1000 by default]
+ * </pre>
+ */
+public class HttpClientBenchmark {
+
+    private static final String V1 = "V1";
+
+    private static final String SECRET_ID = "benchmark/secret";
+
+    private static final double CALLS_PER_SECOND = 100;
+
+    public static void main(String[] args) throws Exception {
+        Benchmarks.quietLogging();
+        if (args.length > 0 && args[0].equals(Benchmarks.FORK)) {
+            System.out.println(Benchmarks.format(measure(args[1], args[2], Integer.parseInt(args[3]))));
+            return;
+        }
+
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        List<String> clients = new ArrayList<>();
+        clients.add(V1);
+        for (HttpClientType type : HttpClientType.values()) {
+            clients.add(type.name());
+        }
+        Map<String, List<long[]>> samples = new LinkedHashMap<>();
+        try (StubSecretsManagerEndpoint endpoint = new StubSecretsManagerEndpoint(new InMemorySMService(), Duration.ZERO)) {
+            endpoint.getBackend().createSecret(SECRET_ID, "value");
+            System.out.println("client         run firstCallMillis p50Micros p99Micros classes heapKB metaspaceKB");
+            for (int run = 1; run <= runs; run++) {
+                for (String client : clients) {
+                    long[] sample = Benchmarks.parse(Benchmarks.fork(HttpClientBenchmark.class,
+                            endpoint.getUri().toString(), client, String.valueOf(calls)));
+                    samples.computeIfAbsent(client, c -> new ArrayList<>()).add(sample);
+                    System.out.printf("%-14s %3d %s%n", client, run, Benchmarks.format(sample));
+                }
+            }
+        }
+        samples.forEach((client, clientSamples) ->
+                System.out.printf("%-14s median %s%n", client, Benchmarks.format(Benchmarks.medians(clientSamples))));
+    }
+
+    private static long[] measure(String endpoint, String client, int calls) throws Exception {
+        long start = System.nanoTime();
+        ISecretManagerService service = client.equals(V1)
+                ? new AWSSecretManagerService("access", "secret", endpoint, "us-east-1")
+                : new AWSSecretManagerV2Service("access", "secret", endpoint, "us-east-1", HttpClientType.valueOf(client));
+        try {
+            service.getSecret(SECRET_ID);
+            long firstCallMillis = (System.nanoTime() - start) / 1_000_000;
+
+            SecretTrace trace = new ZipfTraceGenerator(100, 1.1, CALLS_PER_SECOND, 0.05, 42)
+                    .generate(Duration.ofMillis((long) (calls * 1000 / CALLS_PER_SECOND)));
+            TraceReplayer replayer = new TraceReplayer(service);
+            replayer.replay(trace, 10);
+            ReplayReport report = replayer.replay(trace, 1);
+            if (report.getErrors() > 0) {
+                throw new IllegalStateException(report.getErrors() + " calls failed: " + report);
+            }
+            long[] memory = Benchmarks.memoryAfterGc();
+            return new long[] {firstCallMillis, report.getLatencyMicros().getP50(), report.getLatencyMicros().getP99(),
+                    memory[0], memory[1], memory[2]};
+        } finally {
+            if (service instanceof AutoCloseable) {
+                ((AutoCloseable) service).close();
+            }
+        }
+    }
+}
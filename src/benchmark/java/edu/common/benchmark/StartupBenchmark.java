@@ -0,0 +1,85 @@
+package edu.common.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import edu.common.autoconfigure.SecretManagerAutoConfiguration;
+import edu.common.aws.AWSSecretManagerConfig;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Context start-up time and memory of {@link SecretManagerAutoConfiguration}, with the lazily built AWS client
+ * ({@code lazy}) and with the client built while the context starts, as before the auto-configuration ({@code eager}).
+ * <p>
+ * Each run starts a fresh JVM per mode holding only the auto-configuration, refreshes the context and prints the
+ * refresh time, the loaded classes and the heap and metaspace used after a full GC. The medians are printed at the end.
+ * <pre>
+ * java -cp ... edu.common.benchmark.StartupBenchmark [runs, 12 by default]
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final String[] MODES = {"lazy", "eager"};
+
+    /**
+     * Builds the client while the context starts, as the component-scanned configuration did.
+     */
+    @Configuration
+    public static class EagerClient {
+        @Bean
+        public AWSSecretsManager secretsManagerClient() {
+            return AWSSecretManagerConfig.buildClient("access", "secret", "secretsmanager.us-east-1.amazonaws.com", "us-east-1");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Benchmarks.quietLogging();
+        if (args.length > 0 && args[0].equals(Benchmarks.FORK)) {
+            System.out.println(Benchmarks.format(measure(args[1])));
+            return;
+        }
+
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        Map<String, List<long[]>> samples = new HashMap<>();
+        System.out.println("mode  run refreshMillis classes heapKB metaspaceKB");
+        for (int run = 1; run <= runs; run++) {
+            for (String mode : MODES) {
+                long[] sample = Benchmarks.parse(Benchmarks.fork(StartupBenchmark.class, mode));
+                samples.computeIfAbsent(mode, m -> new ArrayList<>()).add(sample);
+                System.out.printf("%-5s %3d %s%n", mode, run, Benchmarks.format(sample));
+            }
+        }
+        for (String mode : MODES) {
+            System.out.printf("%-5s median %s%n", mode, Benchmarks.format(Benchmarks.medians(samples.get(mode))));
+        }
+    }
+
+    private static long[] measure(String mode) {
+        long start = System.nanoTime();
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.sm.access_key", "access");
+        properties.put("aws.sm.secret_key", "secret");
+        properties.put("aws.sm.region", "us-east-1");
+        properties.put("aws.sm.endpoint", "secretsmanager.us-east-1.amazonaws.com");
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        if (mode.equals("eager")) {
+            context.register(EagerClient.class);
+        }
+        context.register(SecretManagerAutoConfiguration.class);
+        context.refresh();
+        long refreshMillis = (System.nanoTime() - start) / 1_000_000;
+        try {
+            long[] memory = Benchmarks.memoryAfterGc();
+            return new long[] {refreshMillis, memory[0], memory[1], memory[2]};
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package edu.common.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.common.aws.AWSSecretManagerService;
+import edu.common.aws.StubSecretsManagerEndpoint;
+import edu.common.mock.InMemorySMService;
+
+/**
+ * Latency of the first {@code getSecret} calls of a fresh {@link AWSSecretManagerService}, without ({@code cold}) and
+ * after ({@code warm}) {@link AWSSecretManagerService#warmUp(int) warmUp(4)}, against a {@link StubSecretsManagerEndpoint}.
+ * <p>
+ * Each run starts a fresh JVM per mode and prints the warm-up time in milliseconds, then the latency of the first and
+ * second calls in microseconds. The stub has no TLS: the connection setup time, 0 by default, is added to the first
+ * request of each connection to stand for the handshakes of a real endpoint. The medians are printed at the end.
+ * <pre>
+ * java -cp ... edu.common.benchmark.WarmUpBenchmark [runs, 12 by default] [connection setup in ms, 0 by default]
+ * </pre>
+ */
+public class WarmUpBenchmark {
+
+    private static final String[] MODES = {"cold", "warm"};
+
+    private static final String SECRET_ID = "benchmark/secret";
+
+    private static final int WARM_UP_CONNECTIONS = 4;
+
+    public static void main(String[] args) throws Exception {
+        Benchmarks.quietLogging();
+        if (args.length > 0 && args[0].equals(Benchmarks.FORK)) {
+            System.out.println(Benchmarks.format(measure(args[1], args[2])));
+            return;
+        }
+
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        Duration connectionSetup = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 0);
+        Map<String, List<long[]>> samples = new HashMap<>();
+        try (StubSecretsManagerEndpoint endpoint = new StubSecretsManagerEndpoint(new InMemorySMService(), connectionSetup)) {
+            endpoint.getBackend().createSecret(SECRET_ID, "value");
+            System.out.println("mode run warmUpMillis firstCallMicros secondCallMicros");
+            for (int run = 1; run <= runs; run++) {
+                for (String mode : MODES) {
+                    long[] sample = Benchmarks.parse(Benchmarks.fork(WarmUpBenchmark.class, endpoint.getUri().toString(), mode));
+                    samples.computeIfAbsent(mode, m -> new ArrayList<>()).add(sample);
+                    System.out.printf("%-4s %3d %s%n", mode, run, Benchmarks.format(sample));
+                }
+            }
+        }
+        for (String mode : MODES) {
+            System.out.printf("%-4s median %s%n", mode, Benchmarks.format(Benchmarks.medians(samples.get(mode))));
+        }
+    }
+
+    private static long[] measure(String endpoint, String mode) {
+        AWSSecretManagerService service = new AWSSecretManagerService("access", "secret", endpoint, "us-east-1");
+        long warmUpMillis = mode.equals("warm") ? service.warmUp(WARM_UP_CONNECTIONS).toMillis() : 0;
+        long first = System.nanoTime();
+        service.getSecret(SECRET_ID);
+        long second = System.nanoTime();
+        service.getSecret(SECRET_ID);
+        long end = System.nanoTime();
+        return new long[] {warmUpMillis, (second - first) / 1_000, (end - second) / 1_000};
+    }
+}
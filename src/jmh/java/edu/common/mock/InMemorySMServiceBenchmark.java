@@ -0,0 +1,109 @@
+package edu.common.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of {@link InMemorySMService#getSecret(String)} and {@link InMemorySMService#compareAndSetSecretValue}
+ * as threads are added, over 1,000 secrets (little contention) and over a single secret (every thread contends).
+ * <p>
+ * {@link #main(String[])} runs the benchmarks at 1, 2, 4, ... threads up to twice the number of processors, or at the
+ * thread counts given as arguments. JMH options can also be passed directly to {@code org.openjdk.jmh.Main}.
+ * <pre>
+ * java -cp ... edu.common.mock.InMemorySMServiceBenchmark [threads...]
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InMemorySMServiceBenchmark {
+
+    private static final String SECRET_ID_PREFIX = "benchmark/";
+
+    @Param({"1000", "1"})
+    public int secrets;
+
+    private InMemorySMService service;
+
+    private String[] secretIds;
+
+    /**
+     * Values written by one thread: two per secret, so that a successful compare-and-set always changes the value.
+     */
+    @State(Scope.Thread)
+    public static class ThreadValues {
+        private final String first = "first-" + Thread.currentThread().getName();
+        private final String second = "second-" + Thread.currentThread().getName();
+    }
+
+    @Setup
+    public void setUp() {
+        service = new InMemorySMService();
+        secretIds = new String[secrets];
+        for (int i = 0; i < secrets; i++) {
+            secretIds[i] = SECRET_ID_PREFIX + i;
+            service.createSecret(secretIds[i], "value-" + i);
+        }
+    }
+
+    @Benchmark
+    public String getSecret() {
+        return service.getSecret(nextSecretId());
+    }
+
+    /**
+     * Reads a secret and replaces its value if no other thread did in the meantime, as an optimistic update would.
+     */
+    @Benchmark
+    public boolean compareAndSetSecretValue(ThreadValues values) {
+        String secretId = nextSecretId();
+        String current = service.getSecret(secretId);
+        return service.compareAndSetSecretValue(secretId, current, values.first.equals(current) ? values.second : values.first);
+    }
+
+    private String nextSecretId() {
+        return secretIds[ThreadLocalRandom.current().nextInt(secrets)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        List<Integer> threadCounts = new ArrayList<>();
+        for (String arg : args) {
+            threadCounts.add(Integer.parseInt(arg));
+        }
+        if (threadCounts.isEmpty()) {
+            int max = Runtime.getRuntime().availableProcessors() * 2;
+            for (int threads = 1; threads < max; threads *= 2) {
+                threadCounts.add(threads);
+            }
+            threadCounts.add(max);
+        }
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .include(InMemorySMServiceBenchmark.class.getName() + "\\.")
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
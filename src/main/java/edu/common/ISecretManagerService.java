@@ -1,5 +1,19 @@
 package edu.common;
 
+import edu.common.bulk.BulkOperationResult;
+import edu.common.bulk.BulkPipeline;
+import edu.common.concurrent.SecretManagerExecutors;
+import edu.common.exception.SMServiceException;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public interface ISecretManagerService {
 
@@ -33,5 +47,86 @@ public interface ISecretManagerService {
      */
     void deleteSecret(String secretId);
 
-}
+    /**
+     * Retrieves the contents of the encrypted fields SecretString of a secret without blocking the caller.
+     * @param secretId Specifies the secret containing the version that you want to retrieve.
+     *                 You can specify either the Amazon Resource Name (ARN) or the friendly name of the secret.
+     * @return Future completed with the value returned by {@link #getSecret(String)}
+     */
+    default CompletableFuture<String> getSecretAsync(String secretId) {
+        return CompletableFuture.supplyAsync(() -> getSecret(secretId), getExecutor());
+    }
+
+    /**
+     * Retrieves several secrets in parallel on {@link #getExecutor()}.
+     * @param secretIds Specifies the secrets to retrieve.
+     * @return Secret values keyed by secret ID, in the iteration order of {@code secretIds}
+     * @throws SMServiceException if any of the secrets could not be retrieved
+     */
+    default Map<String, String> getSecrets(Collection<String> secretIds) {
+        List<String> ids = secretIds.stream().distinct().collect(Collectors.toList());
+        List<CompletableFuture<String>> futures = ids.stream().map(this::getSecretAsync).collect(Collectors.toList());
+
+        Map<String, String> secrets = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            try {
+                secrets.put(ids.get(i), futures.get(i).join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new SMServiceException(e.getCause());
+            }
+        }
+        return secrets;
+    }
+
+    /**
+     * Lists the names of the secrets, page by page as the stream is consumed.
+     * <p>
+     * Pages are fetched lazily, and backends may prefetch the next one in the background. Close the stream, e.g. with
+     * try-with-resources, to stop early and release what it holds.
+     * @param nameFilter Only lists the secrets whose name starts with this value, ignoring case like the {@code Name}
+     *                   filter of Secrets Manager; {@code null} or blank lists all of them.
+     * @return Lazy stream of secret names
+     */
+    Stream<String> listSecrets(String nameFilter);
 
+    /**
+     * Creates several secrets through {@link #getBulkPipeline()}, on {@link #getExecutor()}. Throttled and transient
+     * failures are retried.
+     * @param secrets Secret values keyed by the friendly name of the new secrets.
+     * @return One result per secret; a failed item does not stop the others
+     */
+    default Map<String, BulkOperationResult> createSecrets(Map<String, String> secrets) {
+        return getBulkPipeline().run(secrets.keySet(), name -> createSecret(name, secrets.get(name)), getExecutor());
+    }
+
+    /**
+     * Deletes several secrets through {@link #getBulkPipeline()}, on {@link #getExecutor()}. Throttled and transient
+     * failures are retried.
+     * @param secretIds Specifies the secrets to delete.
+     * @return One result per secret; a failed item does not stop the others
+     */
+    default Map<String, BulkOperationResult> deleteSecrets(Collection<String> secretIds) {
+        return getBulkPipeline().run(secretIds, this::deleteSecret, getExecutor());
+    }
+
+    /**
+     * Pipeline running {@link #createSecrets(Map)} and {@link #deleteSecrets(Collection)}. For other settings, run a
+     * pipeline directly: {@code new BulkPipeline(...).run(secretIds, service::deleteSecret, service.getExecutor())}.
+     * @return {@link BulkPipeline#defaultPipeline()} unless overridden
+     */
+    default BulkPipeline getBulkPipeline() {
+        return BulkPipeline.defaultPipeline();
+    }
+
+    /**
+     * Executor used for the blocking work behind {@link #getSecretAsync(String)} and {@link #getSecrets(Collection)}.
+     * @return Executor supplied by the user, or {@link SecretManagerExecutors#defaultExecutor()}
+     */
+    default Executor getExecutor() {
+        return SecretManagerExecutors.defaultExecutor();
+    }
+
+}
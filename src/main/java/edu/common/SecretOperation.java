@@ -0,0 +1,11 @@
+package edu.common;
+
+/**
+ * Operations of {@link ISecretManagerService}, as recorded in traces and reports.
+ */
+public enum SecretOperation {
+    GET,
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,96 @@
+package edu.common.autoconfigure;
+
+import edu.common.ISecretManagerService;
+import edu.common.aws.AWSSecretManagerService;
+import edu.common.aws.v2.AWSSecretManagerV2Service;
+import edu.common.mock.FaultProfile;
+import edu.common.mock.InMemorySMService;
+import edu.common.mock.LatencyDistribution;
+import edu.common.mock.MockSMService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers an {@link ISecretManagerService} unless the application already defines one.
+ * <p>
+ * {@code aws.sm.backend} picks the implementation: {@code aws} (SDK v1, the default), {@code aws-v2}, {@code mock} or
+ * {@code in-memory}. The AWS client is built on first use rather than here, so the SDK is not loaded while the context
+ * starts, unless {@code aws.sm.warm-up.connections} asks for the {@code aws} backend to be warmed up.
+ */
+@Configuration
+@EnableConfigurationProperties(SecretManagerProperties.class)
+public class SecretManagerAutoConfiguration {
+
+    @Configuration
+    @ConditionalOnClass(name = "com.amazonaws.services.secretsmanager.AWSSecretsManager")
+    @ConditionalOnProperty(prefix = "aws.sm", name = "backend", havingValue = "aws", matchIfMissing = true)
+    static class AwsBackendConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(ISecretManagerService.class)
+        public AWSSecretManagerService smService(SecretManagerProperties properties) {
+            AWSSecretManagerService service = new AWSSecretManagerService(properties.getAccessKey(), properties.getSecretKey(),
+                    properties.getEndpoint(), properties.getRegion());
+            if (properties.getWarmUp().getConnections() > 0) {
+                service.warmUp(properties.getWarmUp().getConnections(), properties.getWarmUp().getTimeout());
+            }
+            return service;
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "software.amazon.awssdk.services.secretsmanager.SecretsManagerClient")
+    @ConditionalOnProperty(prefix = "aws.sm", name = "backend", havingValue = "aws-v2")
+    static class AwsV2BackendConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(ISecretManagerService.class)
+        public AWSSecretManagerV2Service smService(SecretManagerProperties properties) {
+            return new AWSSecretManagerV2Service(properties.getAccessKey(), properties.getSecretKey(),
+                    properties.getEndpoint(), properties.getRegion(), properties.getHttpClient());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "aws.sm", name = "backend", havingValue = "mock")
+    static class MockBackendConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(ISecretManagerService.class)
+        public MockSMService smService(SecretManagerProperties properties) {
+            return mockService(properties.getMock());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "aws.sm", name = "backend", havingValue = "in-memory")
+    static class InMemoryBackendConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(ISecretManagerService.class)
+        public InMemorySMService smService() {
+            return new InMemorySMService();
+        }
+    }
+
+    static MockSMService mockService(SecretManagerProperties.Mock settings) {
+        MockSMService service = new MockSMService(settings.getTargetDirectory());
+        SecretManagerProperties.Faults faults = settings.getFaults();
+        if (faults.isEnabled()) {
+            FaultProfile profile = new FaultProfile(faults.getSeed())
+                    .throttleRate(faults.getThrottleRate())
+                    .transientErrorRate(faults.getTransientErrorRate());
+            if (faults.getLatency() != null) {
+                profile.latency(faults.getMaxLatency() != null
+                        ? LatencyDistribution.uniform(faults.getLatency(), faults.getMaxLatency())
+                        : LatencyDistribution.fixed(faults.getLatency()));
+            }
+            service.setFaultProfile(profile);
+        }
+        return service;
+    }
+}
@@ -0,0 +1,137 @@
+package edu.common.autoconfigure;
+
+import edu.common.ISecretManagerService;
+import edu.common.aws.AWSSecretManagerService;
+import edu.common.aws.v2.AWSSecretManagerV2Service;
+import edu.common.mock.InMemorySMService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigFileApplicationListener;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Adds a {@link SecretManagerPropertySource} to the environment.
+ * <p>
+ * Before any placeholder is resolved, every property value is scanned for {@code ${sm:...}} references and all the
+ * referenced secrets (plus {@code aws.sm.property-source.prefetch}) are fetched in a single parallel batch, so that
+ * startup waits for the slowest secret rather than for the sum of all of them.
+ */
+public class SecretManagerEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SecretManagerEnvironmentPostProcessor.class);
+
+    private static final Pattern SECRET_REFERENCE = Pattern.compile(
+            Pattern.quote("${" + SecretManagerPropertySource.PREFIX) + "([^}]+)");
+
+    @Override
+    public int getOrder() {
+        // after application.properties / application.yml have been loaded
+        return ConfigFileApplicationListener.DEFAULT_ORDER + 1;
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        SecretManagerProperties properties = Binder.get(environment)
+                .bind("aws.sm", Bindable.of(SecretManagerProperties.class))
+                .orElseGet(SecretManagerProperties::new);
+        if (!properties.getPropertySource().isEnabled()
+                || environment.getPropertySources().contains(SecretManagerPropertySource.NAME)) {
+            return;
+        }
+
+        ISecretManagerService service = createService(properties);
+        SecretManagerPropertySource propertySource = new SecretManagerPropertySource(service);
+        Set<String> secretIds = new LinkedHashSet<>(properties.getPropertySource().getPrefetch());
+        secretIds.addAll(findReferencedSecretIds(environment));
+        propertySource.prefetch(secretIds);
+
+        if (properties.getPropertySource().getRefreshInterval() != null) {
+            propertySource.scheduleRefresh(properties.getPropertySource().getRefreshInterval());
+        }
+        environment.getPropertySources().addLast(propertySource);
+        if (application != null) {
+            application.addListeners(new CloseOnContextClosed(propertySource, service));
+        }
+    }
+
+    /**
+     * Collects the secret IDs referenced from the values of all enumerable property sources.
+     */
+    static Set<String> findReferencedSecretIds(ConfigurableEnvironment environment) {
+        Set<String> secretIds = new LinkedHashSet<>();
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            if (!(source instanceof EnumerablePropertySource)) {
+                continue;
+            }
+            for (String name : ((EnumerablePropertySource<?>) source).getPropertyNames()) {
+                Object value = source.getProperty(name);
+                if (value instanceof String) {
+                    Matcher matcher = SECRET_REFERENCE.matcher((String) value);
+                    while (matcher.find()) {
+                        secretIds.add(SecretManagerPropertySource.secretId(matcher.group(1)));
+                    }
+                }
+            }
+        }
+        return secretIds;
+    }
+
+    private static ISecretManagerService createService(SecretManagerProperties properties) {
+        switch (properties.getBackend()) {
+            case MOCK:
+                return SecretManagerAutoConfiguration.mockService(properties.getMock());
+            case IN_MEMORY:
+                return new InMemorySMService();
+            case AWS_V2:
+                return new AWSSecretManagerV2Service(properties.getAccessKey(), properties.getSecretKey(),
+                        properties.getEndpoint(), properties.getRegion(), properties.getHttpClient());
+            default:
+                return new AWSSecretManagerService(properties.getAccessKey(), properties.getSecretKey(),
+                        properties.getEndpoint(), properties.getRegion());
+        }
+    }
+
+    /**
+     * Stops the refresh of the property source and closes the service created for it, which is not a bean.
+     */
+    private static class CloseOnContextClosed implements ApplicationListener<ApplicationEvent> {
+        private final SecretManagerPropertySource propertySource;
+        private final ISecretManagerService service;
+
+        private CloseOnContextClosed(SecretManagerPropertySource propertySource, ISecretManagerService service) {
+            this.propertySource = propertySource;
+            this.service = service;
+        }
+
+        @Override
+        public void onApplicationEvent(ApplicationEvent event) {
+            if (event instanceof ContextClosedEvent) {
+                propertySource.close();
+                if (service instanceof Closeable) {
+                    try {
+                        ((Closeable) service).close();
+                    } catch (IOException | RuntimeException e) {
+                        LOGGER.warn("Could not close the secret manager service of the property source: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package edu.common.autoconfigure;
+
+import edu.common.aws.AWSSecretManagerService;
+import edu.common.aws.v2.HttpClientType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings bound from the {@code aws.sm.*} properties.
+ */
+@ConfigurationProperties(prefix = "aws.sm")
+public class SecretManagerProperties {
+
+    /**
+     * Backend used for the auto-configured {@link edu.common.ISecretManagerService}.
+     */
+    public enum Backend {
+        /** AWS Secrets Manager through {@link edu.common.aws.AWSSecretManagerService} */
+        AWS,
+        /** AWS Secrets Manager through {@link edu.common.aws.v2.AWSSecretManagerV2Service} */
+        AWS_V2,
+        /** File system through {@link edu.common.mock.MockSMService} */
+        MOCK,
+        /** Memory through {@link edu.common.mock.InMemorySMService} */
+        IN_MEMORY
+    }
+
+    private Backend backend = Backend.AWS;
+
+    private String accessKey;
+
+    private String secretKey;
+
+    private String region;
+
+    private String endpoint;
+
+    /** HTTP client of the {@link Backend#AWS_V2} backend */
+    private HttpClientType httpClient = HttpClientType.URL_CONNECTION;
+
+    private final Mock mock = new Mock();
+
+    private final PropertySourceSettings propertySource = new PropertySourceSettings();
+
+    private final WriteBehind writeBehind = new WriteBehind();
+
+    private final WarmUp warmUp = new WarmUp();
+
+    public static class Mock {
+        private String targetDirectory = "./target/";
+
+        private final Faults faults = new Faults();
+
+        public String getTargetDirectory() {
+            return targetDirectory;
+        }
+
+        public void setTargetDirectory(String targetDirectory) {
+            this.targetDirectory = targetDirectory;
+        }
+
+        public Faults getFaults() {
+            return faults;
+        }
+    }
+
+    /**
+     * Latency and failures injected into the {@link Backend#MOCK} backend, see {@link edu.common.mock.FaultProfile}.
+     */
+    public static class Faults {
+        private boolean enabled;
+
+        private long seed;
+
+        /** Latency of every call, or minimum latency when {@code maxLatency} is set */
+        private Duration latency;
+
+        /** When set, latencies are evenly spread between {@code latency} and this value */
+        private Duration maxLatency;
+
+        private double throttleRate;
+
+        private double transientErrorRate;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+
+        public Duration getLatency() {
+            return latency;
+        }
+
+        public void setLatency(Duration latency) {
+            this.latency = latency;
+        }
+
+        public Duration getMaxLatency() {
+            return maxLatency;
+        }
+
+        public void setMaxLatency(Duration maxLatency) {
+            this.maxLatency = maxLatency;
+        }
+
+        public double getThrottleRate() {
+            return throttleRate;
+        }
+
+        public void setThrottleRate(double throttleRate) {
+            this.throttleRate = throttleRate;
+        }
+
+        public double getTransientErrorRate() {
+            return transientErrorRate;
+        }
+
+        public void setTransientErrorRate(double transientErrorRate) {
+            this.transientErrorRate = transientErrorRate;
+        }
+    }
+
+    /**
+     * Settings of the {@code ${sm:secretId#key}} placeholder support.
+     */
+    public static class PropertySourceSettings {
+        private boolean enabled = true;
+
+        /** Secret IDs fetched at startup in addition to those referenced from property files */
+        private List<String> prefetch = new ArrayList<>();
+
+        /** When set, cached secrets are fetched again at this interval to pick up rotations */
+        private Duration refreshInterval;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(List<String> prefetch) {
+            this.prefetch = prefetch;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    /**
+     * Settings of the opt-in write coalescing of {@code updateSecretValue}.
+     */
+    public static class WriteBehind {
+        /** When set, updates of the same secret within this window are coalesced into one write */
+        private Duration window;
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+    }
+
+    /**
+     * Settings of the warm-up of the {@link Backend#AWS} backend when the bean is created.
+     */
+    public static class WarmUp {
+        /** Connections opened to the endpoint when the bean is created, 0 to build the client on first use */
+        private int connections;
+
+        /** Time the bean creation waits for the warm-up at most */
+        private Duration timeout = AWSSecretManagerService.DEFAULT_WARM_UP_TIMEOUT;
+
+        public int getConnections() {
+            return connections;
+        }
+
+        public void setConnections(int connections) {
+            this.connections = connections;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(Backend backend) {
+        this.backend = backend;
+    }
+
+    public String getAccessKey() {
+        return accessKey;
+    }
+
+    public void setAccessKey(String accessKey) {
+        this.accessKey = accessKey;
+    }
+
+    public String getSecretKey() {
+        return secretKey;
+    }
+
+    public void setSecretKey(String secretKey) {
+        this.secretKey = secretKey;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public HttpClientType getHttpClient() {
+        return httpClient;
+    }
+
+    public void setHttpClient(HttpClientType httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    public Mock getMock() {
+        return mock;
+    }
+
+    public PropertySourceSettings getPropertySource() {
+        return propertySource;
+    }
+
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+}
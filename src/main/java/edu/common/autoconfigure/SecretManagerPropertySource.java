@@ -0,0 +1,191 @@
+package edu.common.autoconfigure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.common.ISecretManagerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.PropertySource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+
+/**
+ * Resolves properties named {@code sm:<secretId>} or {@code sm:<secretId>#<jsonKey>}, so that placeholders such as
+ * {@code ${sm:db/prod#password}} are answered from {@link ISecretManagerService}. The secret ID ends at the first
+ * {@code #}, which secret names cannot contain. A reference to a key missing from the secret, or to a key of a secret
+ * that is not a JSON object, fails instead of resolving to nothing: Spring would otherwise read the text after
+ * {@code sm:} as the default value of the placeholder.
+ * <p>
+ * Every secret is fetched and parsed once and then kept for the life of the context. Secrets known up front can be
+ * loaded in one parallel batch with {@link #prefetch(Collection)}; {@link #refresh()} fetches them all again.
+ */
+public class SecretManagerPropertySource extends PropertySource<ISecretManagerService> implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SecretManagerPropertySource.class);
+
+    public static final String NAME = "secretManager";
+
+    public static final String PREFIX = "sm:";
+
+    public static final char KEY_SEPARATOR = '#';
+
+    private final ConcurrentMap<String, CachedSecret> secrets = new ConcurrentHashMap<>();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ScheduledExecutorService refreshScheduler;
+
+    /**
+     * A fetched secret with its JSON content parsed once, if it is a JSON object.
+     */
+    private static class CachedSecret {
+        private final String value;
+        private final JsonNode json;
+
+        private CachedSecret(String value, JsonNode json) {
+            this.value = value;
+            this.json = json;
+        }
+    }
+
+    public SecretManagerPropertySource(ISecretManagerService secretManagerService) {
+        super(NAME, secretManagerService);
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        if (!name.startsWith(PREFIX)) {
+            return null;
+        }
+
+        String reference = name.substring(PREFIX.length());
+        String secretId = secretId(reference);
+        CachedSecret secret = secrets.computeIfAbsent(secretId, id -> parse(id, getSource().getSecret(id)));
+
+        if (secretId.length() == reference.length()) {
+            return secret.value;
+        }
+        String key = reference.substring(secretId.length() + 1);
+        if (secret.json == null) {
+            throw new IllegalArgumentException("Secret " + secretId + " is not a JSON object, cannot resolve key \"" + key + "\"");
+        }
+        JsonNode field = secret.json.get(key);
+        if (field == null || field.isNull()) {
+            throw new IllegalArgumentException("Secret " + secretId + " has no key \"" + key + "\"");
+        }
+        return field.isValueNode() ? field.asText() : field.toString();
+    }
+
+    /**
+     * @param reference property name without {@link #PREFIX}, {@code <secretId>} or {@code <secretId>#<jsonKey>}
+     * @return Secret ID of the reference, which ends at the first {@link #KEY_SEPARATOR}
+     */
+    static String secretId(String reference) {
+        int separator = reference.indexOf(KEY_SEPARATOR);
+        return separator < 0 ? reference : reference.substring(0, separator);
+    }
+
+    /**
+     * Fetches, in one parallel batch, the secrets that are not cached yet.
+     * @param secretIds IDs of the secrets to load
+     */
+    public void prefetch(Collection<String> secretIds) {
+        List<String> missing = new ArrayList<>();
+        for (String secretId : secretIds) {
+            if (!secrets.containsKey(secretId)) {
+                missing.add(secretId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        getSource().getSecrets(missing).forEach((id, value) -> secrets.putIfAbsent(id, parse(id, value)));
+        LOGGER.info("Prefetched {} secrets in {} milliseconds", keyValue("count", missing.size()),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Fetches every cached secret again, in one parallel batch, and replaces the values that changed.
+     */
+    public void refresh() {
+        if (secrets.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> latest = getSource().getSecrets(new ArrayList<>(secrets.keySet()));
+        latest.forEach((id, value) -> {
+            CachedSecret cached = secrets.get(id);
+            if (cached == null || !Objects.equals(cached.value, value)) {
+                secrets.put(id, parse(id, value));
+                LOGGER.info("Secret {} changed, property values updated", keyValue("secretId", id));
+            }
+        });
+    }
+
+    /**
+     * Calls {@link #refresh()} at a fixed interval until {@link #close()}.
+     * @param interval Delay between two refreshes
+     */
+    public synchronized void scheduleRefresh(Duration interval) {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+        }
+        refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "secret-manager-property-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not refresh secrets: {}", e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return IDs of the secrets currently cached
+     */
+    public Collection<String> getCachedSecretIds() {
+        return secrets.keySet();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+            refreshScheduler = null;
+        }
+    }
+
+    private CachedSecret parse(String secretId, String value) {
+        JsonNode json = null;
+        if (value != null && value.trim().startsWith("{")) {
+            try {
+                json = mapper.readTree(value);
+                if (!json.isObject()) {
+                    json = null;
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Secret {} is not valid JSON, only its raw value can be referenced", keyValue("secretId", secretId));
+            }
+        }
+        return new CachedSecret(value, json);
+    }
+}
@@ -0,0 +1,31 @@
+package edu.common.autoconfigure;
+
+import edu.common.ISecretManagerService;
+import edu.common.writebehind.WriteBehindSecretManagerService;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * When {@code aws.sm.write-behind.window} is set, puts a primary {@link WriteBehindSecretManagerService} in front of
+ * the {@link ISecretManagerService} bean, so that bursts of updates of the same secret are coalesced.
+ */
+@Configuration
+@AutoConfigureAfter(SecretManagerAutoConfiguration.class)
+@EnableConfigurationProperties(SecretManagerProperties.class)
+@ConditionalOnProperty(prefix = "aws.sm.write-behind", name = "window")
+public class WriteBehindAutoConfiguration {
+
+    @Bean
+    @Primary
+    @ConditionalOnBean(ISecretManagerService.class)
+    @ConditionalOnMissingBean(WriteBehindSecretManagerService.class)
+    public WriteBehindSecretManagerService writeBehindSmService(ISecretManagerService smService, SecretManagerProperties properties) {
+        return new WriteBehindSecretManagerService(smService, properties.getWriteBehind().getWindow());
+    }
+}
@@ -0,0 +1,73 @@
+package edu.common.aws;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import edu.common.exception.SMAccessDeniedException;
+import edu.common.exception.SMSecretNotFoundException;
+import edu.common.exception.SMServiceException;
+import edu.common.exception.SMThrottledException;
+import edu.common.exception.SMTransientException;
+import edu.common.exception.SMValidationException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Maps AWS SDK v1 exceptions onto the {@link SMServiceException} hierarchy.
+ */
+public final class AWSExceptionTranslator {
+
+    public static final String CLIENT_ERROR_CODE = "ClientError";
+
+    private static final Set<String> THROTTLING_CODES = new HashSet<>(Arrays.asList(
+            "ThrottlingException", "Throttling", "TooManyRequestsException", "RequestLimitExceeded",
+            "RequestThrottled", "RequestThrottledException", "ProvisionedThroughputExceededException"));
+
+    private static final Set<String> ACCESS_DENIED_CODES = new HashSet<>(Arrays.asList(
+            "AccessDeniedException", "AccessDenied", "UnrecognizedClientException", "InvalidSignatureException",
+            "ExpiredTokenException", "IncompleteSignature", "SignatureDoesNotMatch", "DecryptionFailure"));
+
+    private static final Set<String> VALIDATION_CODES = new HashSet<>(Arrays.asList(
+            "InvalidParameterException", "InvalidRequestException", "ResourceExistsException",
+            "MalformedPolicyDocumentException", "PreconditionNotMetException", "ValidationException",
+            "EncryptionFailure"));
+
+    private AWSExceptionTranslator() {}
+
+    /**
+     * @param e exception thrown while calling AWS Secrets Manager
+     * @return the matching {@link SMServiceException}, or {@code e} itself if it already is one
+     */
+    public static SMServiceException translate(Exception e) {
+        if (e instanceof SMServiceException) {
+            return (SMServiceException) e;
+        }
+        if (e instanceof AmazonServiceException) {
+            AmazonServiceException ase = (AmazonServiceException) e;
+            String code = ase.getErrorCode();
+            int status = ase.getStatusCode();
+
+            if (SMSecretNotFoundException.ERROR_CODE.equals(code)) {
+                return new SMSecretNotFoundException(ase.getErrorMessage(), ase, code);
+            }
+            if (THROTTLING_CODES.contains(code) || status == 429) {
+                return new SMThrottledException(ase.getErrorMessage(), ase, code);
+            }
+            if (ACCESS_DENIED_CODES.contains(code) || status == 401 || status == 403) {
+                return new SMAccessDeniedException(ase.getErrorMessage(), ase, code);
+            }
+            if (VALIDATION_CODES.contains(code)) {
+                return new SMValidationException(ase.getErrorMessage(), ase, code);
+            }
+            if (status >= 500) {
+                return new SMTransientException(ase.getErrorMessage(), ase, code);
+            }
+            return new SMServiceException(ase.getErrorMessage(), ase, code);
+        }
+        if (e instanceof SdkClientException && ((SdkClientException) e).isRetryable()) {
+            return new SMTransientException(e.getMessage(), e, CLIENT_ERROR_CODE);
+        }
+        return new SMServiceException(e.getMessage(), e);
+    }
+}
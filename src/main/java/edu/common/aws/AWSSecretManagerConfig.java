@@ -8,11 +8,10 @@ import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.annotation.PropertySources;
-import org.springframework.stereotype.Service;
 
-@Service
 @Configuration
 @PropertySources(@PropertySource("classpath:application.properties"))
 public class AWSSecretManagerConfig {
@@ -28,15 +27,21 @@ public class AWSSecretManagerConfig {
     @Value("${aws.sm.endpoint}")
     private String endpoint;
 
+    @Lazy
     @Bean
     public AWSSecretsManager secretsManagerClient() {
+        return buildClient(accessKey, secretKey, endpoint, region);
+    }
+
+    /**
+     * Builds an AWS Secrets Manager client using static credentials.
+     */
+    public static AWSSecretsManager buildClient(String accessKey, String secretKey, String endpoint, String region) {
         AwsClientBuilder.EndpointConfiguration config = new AwsClientBuilder.EndpointConfiguration(endpoint, region);
 
         AWSSecretsManagerClientBuilder clientBuilder = AWSSecretsManagerClientBuilder.standard().withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKey, secretKey)));
         clientBuilder.setEndpointConfiguration(config);
 
-        AWSSecretsManager secretsManagerClient = clientBuilder.build();
-
-        return secretsManagerClient;
+        return clientBuilder.build();
     }
 }
@@ -1,33 +1,99 @@
 package edu.common.aws;
 
-import com.amazonaws.auth.AWSStaticCredentialsProvider;
-import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
-import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
 import com.amazonaws.services.secretsmanager.model.*;
-import edu.common.exception.SMServiceException;
+import edu.common.exception.SMValidationException;
 import edu.common.ISecretManagerService;
+import edu.common.bulk.BulkOperationResult;
+import edu.common.concurrent.SecretManagerExecutors;
+import edu.common.paging.Page;
+import edu.common.paging.PagedIterator;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static edu.common.exception.SMExceptionLogging.log;
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
 
-@Service
 public class AWSSecretManagerService implements ISecretManagerService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AWSSecretManagerService.class);
 
-    private AWSSecretsManager secretsManagerClient;
+    /** {@code MaxResults} of the {@code ListSecrets} calls made by {@link #listSecrets(String)}, the service maximum */
+    public static final int LIST_PAGE_SIZE = 100;
+
+    /** Prefix of the IDs looked up by {@link #warmUp(int)}, which are not expected to exist */
+    static final String WARM_UP_SECRET_ID_PREFIX = "secret-manager-warm-up-";
+
+    /** Time {@link #warmUp(int)} waits for its calls */
+    public static final Duration DEFAULT_WARM_UP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Supplier<AWSSecretsManager> clientFactory;
+
+    private volatile AWSSecretsManager secretsManagerClient;
+
+    private Executor executor;
 
+    /**
+     * The AWS client is only built on first use, so constructing the service does not load the SDK.
+     */
     public AWSSecretManagerService(String accessKey, String secretKey, String endpoint, String region) {
-        AwsClientBuilder.EndpointConfiguration config = new AwsClientBuilder.EndpointConfiguration(endpoint, region);
+        this.clientFactory = () -> AWSSecretManagerConfig.buildClient(accessKey, secretKey, endpoint, region);
+    }
 
-        AWSSecretsManagerClientBuilder clientBuilder = AWSSecretsManagerClientBuilder.standard().withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKey, secretKey)));
-        clientBuilder.setEndpointConfiguration(config);
+    /**
+     * Uses an already built AWS client.
+     */
+    public AWSSecretManagerService(AWSSecretsManager secretsManagerClient) {
+        this.clientFactory = () -> secretsManagerClient;
+        this.secretsManagerClient = secretsManagerClient;
+    }
 
-        secretsManagerClient = clientBuilder.build();
+    /**
+     * Returns the AWS client, building it on first call.
+     */
+    AWSSecretsManager client() {
+        AWSSecretsManager client = secretsManagerClient;
+        if (client == null) {
+            synchronized (this) {
+                client = secretsManagerClient;
+                if (client == null) {
+                    client = clientFactory.get();
+                    secretsManagerClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * @return true once the AWS client has been built.
+     */
+    public boolean isClientInitialized() {
+        return secretsManagerClient != null;
     }
 
     /**
@@ -46,16 +112,15 @@ public class AWSSecretManagerService implements ISecretManagerService {
             }
 
             CreateSecretRequest csr = new CreateSecretRequest().withName(name).withSecretString(secretString);
-            secretsManagerClient.createSecret(csr);
+            client().createSecret(csr);
 
             if (LOGGER.isDebugEnabled()) {
                 stopWatch.stop();
                 LOGGER.info("Created secret in {} milliseconds");
             }
 
-        }catch (Exception e){
-            LOGGER.error(e.getMessage(), e);
-            throw new SMServiceException(e.getMessage(), e);
+        } catch (Exception e) {
+            throw log(LOGGER, AWSExceptionTranslator.translate(e));
         }
     }
 
@@ -75,16 +140,15 @@ public class AWSSecretManagerService implements ISecretManagerService {
             }
 
             UpdateSecretRequest usr = new UpdateSecretRequest().withSecretId(secretId).withDescription(secretDescription);
-            secretsManagerClient.updateSecret(usr);
+            client().updateSecret(usr);
 
             if (LOGGER.isDebugEnabled()) {
                 stopWatch.stop();
                 LOGGER.info("Updated secret in {} nanoseconds",  stopWatch.getNanoTime());
             }
 
-        }catch (Exception e){
-            LOGGER.error(e.getMessage(), e);
-            throw new SMServiceException(e.getMessage(), e);
+        } catch (Exception e) {
+            throw log(LOGGER, AWSExceptionTranslator.translate(e));
         }
 
     }
@@ -105,16 +169,15 @@ public class AWSSecretManagerService implements ISecretManagerService {
             }
 
             UpdateSecretRequest usr = new UpdateSecretRequest().withSecretId(secretId).withSecretString(secretString);
-            secretsManagerClient.updateSecret(usr);
+            client().updateSecret(usr);
 
             if (LOGGER.isDebugEnabled()) {
                 stopWatch.stop();
                 LOGGER.info("Updated secret in {} nanoseconds",  stopWatch.getNanoTime());
             }
 
-        }catch (Exception e){
-            LOGGER.error(e.getMessage(), e);
-            throw new SMServiceException(e.getMessage(), e);
+        } catch (Exception e) {
+            throw log(LOGGER, AWSExceptionTranslator.translate(e));
         }
     }
 
@@ -127,17 +190,79 @@ public class AWSSecretManagerService implements ISecretManagerService {
     public String getSecret(String secretId) {
         try {
             GetSecretValueRequest gsr = new GetSecretValueRequest().withSecretId(secretId);
-            GetSecretValueResult value = secretsManagerClient.getSecretValue(gsr);
+            GetSecretValueResult value = client().getSecretValue(gsr);
 
             if (value == null || StringUtils.isBlank(value.getSecretString())) {
                 //couldn't get record
-                throw new SMServiceException("Value came back Blank for Secret Named: " + secretId);
+                throw new SMValidationException("Value came back Blank for Secret Named: " + secretId, null, SMValidationException.BLANK_VALUE_ERROR_CODE);
             }
 
             return value.getSecretString();
         } catch (Exception e) {
-            LOGGER.error(e.getMessage(), e);
-            throw new SMServiceException(e.getMessage(), e);
+            throw log(LOGGER, AWSExceptionTranslator.translate(e));
+        }
+    }
+
+    /**
+     * Retrieves one version of the {@link GetSecretValueRequest#secretId} in Secrets Manager
+     *
+     * @param secretId  {@link GetSecretValueRequest#secretId}
+     * @param versionId  {@link GetSecretValueRequest#versionId}
+     */
+    public SecretVersion getSecretVersion(String secretId, String versionId) {
+        try {
+            GetSecretValueRequest gsr = new GetSecretValueRequest().withSecretId(secretId).withVersionId(versionId);
+            GetSecretValueResult value = client().getSecretValue(gsr);
+
+            if (value == null || StringUtils.isBlank(value.getSecretString())) {
+                throw new SMValidationException("Value came back Blank for Secret Named: " + secretId + " version " + versionId,
+                        null, SMValidationException.BLANK_VALUE_ERROR_CODE);
+            }
+
+            return new SecretVersion(value.getVersionId(), value.getSecretString());
+        } catch (Exception e) {
+            throw log(LOGGER, AWSExceptionTranslator.translate(e));
+        }
+    }
+
+    /**
+     * Retrieves the staging labels of the versions of {@link DescribeSecretRequest#secretId}, without their values
+     *
+     * @param secretId  {@link DescribeSecretRequest#secretId}
+     * @return {@link DescribeSecretResult#versionIdsToStages}, empty if the secret has no version
+     */
+    public Map<String, List<String>> getSecretVersionStages(String secretId) {
+        try {
+            DescribeSecretResult description = client().describeSecret(new DescribeSecretRequest().withSecretId(secretId));
+            Map<String, List<String>> stages = description == null ? null : description.getVersionIdsToStages();
+            return stages == null ? Collections.emptyMap() : stages;
+        } catch (Exception e) {
+            throw log(LOGGER, AWSExceptionTranslator.translate(e));
+        }
+    }
+
+    /**
+     * Lists the secrets with {@code ListSecrets}, {@link #LIST_PAGE_SIZE} per page, prefetching the next page on
+     * {@link #getExecutor()}.
+     *
+     * @param nameFilter value of the {@link FilterNameStringType#Name} filter, {@code null} or blank for none
+     */
+    @Override
+    public Stream<String> listSecrets(String nameFilter) {
+        return new PagedIterator<>(nextToken -> listSecretsPage(nameFilter, nextToken), getExecutor()).stream();
+    }
+
+    private Page<String> listSecretsPage(String nameFilter, String nextToken) {
+        try {
+            ListSecretsRequest lsr = new ListSecretsRequest().withMaxResults(LIST_PAGE_SIZE).withNextToken(nextToken);
+            if (StringUtils.isNotBlank(nameFilter)) {
+                lsr.withFilters(new Filter().withKey(FilterNameStringType.Name).withValues(nameFilter));
+            }
+            ListSecretsResult result = client().listSecrets(lsr);
+            return new Page<>(result.getSecretList().stream().map(SecretListEntry::getName).collect(Collectors.toList()),
+                    result.getNextToken());
+        } catch (Exception e) {
+            throw log(LOGGER, AWSExceptionTranslator.translate(e));
         }
     }
 
@@ -148,11 +273,129 @@ public class AWSSecretManagerService implements ISecretManagerService {
      */
     @Override
     public void deleteSecret(String secretId) {
+        deleteSecret(secretId, false);
+    }
+
+    /**
+     * Deletes the {@link DeleteSecretRequest#secretId} in Secrets Manager
+     *
+     * @param secretId  {@link DeleteSecretRequest#secretId}
+     * @param forceDeleteWithoutRecovery {@link DeleteSecretRequest#forceDeleteWithoutRecovery}: delete immediately
+     *                                   instead of scheduling the deletion after the recovery window
+     */
+    public void deleteSecret(String secretId, boolean forceDeleteWithoutRecovery) {
         try {
             DeleteSecretRequest dsr = new DeleteSecretRequest().withSecretId(secretId);
-            secretsManagerClient.deleteSecret(dsr);
+            if (forceDeleteWithoutRecovery) {
+                dsr.setForceDeleteWithoutRecovery(true);
+            }
+            client().deleteSecret(dsr);
         } catch (ResourceNotFoundException e) {
             LOGGER.debug("Resource not found for Secret ID " + secretId + ". Nothing to delete so quietly ignoring.");
+        } catch (Exception e) {
+            throw log(LOGGER, AWSExceptionTranslator.translate(e));
+        }
+    }
+
+    /**
+     * Deletes every secret of {@code secretIds} through {@link #getBulkPipeline()}, throttled calls being retried.
+     *
+     * @param secretIds {@link DeleteSecretRequest#secretId} of the secrets
+     * @param forceDeleteWithoutRecovery see {@link #deleteSecret(String, boolean)}
+     * @return One result per secret; a failed item does not stop the others
+     */
+    public Map<String, BulkOperationResult> deleteSecrets(Collection<String> secretIds, boolean forceDeleteWithoutRecovery) {
+        return getBulkPipeline().run(secretIds, secretId -> deleteSecret(secretId, forceDeleteWithoutRecovery), getExecutor());
+    }
+
+    /**
+     * Same as {@link #warmUp(int, Duration)} with {@link #DEFAULT_WARM_UP_TIMEOUT}.
+     */
+    public Duration warmUp(int connections) {
+        return warmUp(connections, DEFAULT_WARM_UP_TIMEOUT);
+    }
+
+    /**
+     * Pays the cost of the first calls up front: builds the client, resolves the endpoint, opens {@code connections}
+     * pooled connections (TCP and TLS handshakes) and loads the request and response path of {@link #getSecret(String)}.
+     * <p>
+     * Each connection makes one {@code GetSecretValue} call for a secret that does not exist, in parallel so that
+     * each needs its own connection. Any answer of the service, errors included, counts as warm; only calls that got
+     * no answer fail. Calls still running after {@code timeout} are abandoned, so an unreachable endpoint delays the
+     * caller by {@code timeout} at most. Failures are logged, never thrown.
+     *
+     * @param connections number of connections to open, capped at the default pool size of the client
+     *                    ({@value ClientConfiguration#DEFAULT_MAX_CONNECTIONS})
+     * @param timeout time after which the warm-up gives up on the calls still running
+     * @return Time the warm-up took
+     */
+    public Duration warmUp(int connections, Duration timeout) {
+        Assert.isTrue(connections > 0, "Connections must be positive");
+        Assert.isTrue(timeout != null && !timeout.isNegative(), "Timeout cannot be null or negative");
+        if (connections > ClientConfiguration.DEFAULT_MAX_CONNECTIONS) {
+            LOGGER.warn("{} exceeds the connection pool of the client, warming up {} connections",
+                    keyValue("connections", connections), ClientConfiguration.DEFAULT_MAX_CONNECTIONS);
+            connections = ClientConfiguration.DEFAULT_MAX_CONNECTIONS;
+        }
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService warmUpExecutor = Executors.newFixedThreadPool(connections, runnable -> {
+            Thread thread = new Thread(runnable, "secret-manager-warm-up-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        int warmed = 0;
+        try {
+            List<CompletableFuture<Boolean>> calls = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                GetSecretValueRequest gsr = new GetSecretValueRequest().withSecretId(WARM_UP_SECRET_ID_PREFIX + UUID.randomUUID());
+                calls.add(CompletableFuture.supplyAsync(() -> warmUpCall(client(), gsr), warmUpExecutor));
+            }
+            for (CompletableFuture<Boolean> call : calls) {
+                if (call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    warmed++;
+                }
+            }
+        } catch (TimeoutException e) {
+            LOGGER.warn("Warm-up did not complete within {} milliseconds", keyValue("timeoutMillis", timeout.toMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            LOGGER.warn("Warm-up failed: {}", e.getMessage());
+        } finally {
+            // interrupts the calls still running
+            warmUpExecutor.shutdownNow();
         }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        LOGGER.info("Warmed up {} of {} connections in {} milliseconds", keyValue("warmed", warmed),
+                keyValue("connections", connections), keyValue("warmUpMillis", elapsed.toMillis()));
+        return elapsed;
+    }
+
+    private static boolean warmUpCall(AWSSecretsManager client, GetSecretValueRequest gsr) {
+        try {
+            client.getSecretValue(gsr);
+            return true;
+        } catch (AmazonServiceException e) {
+            // the service answered, which is all the warm-up needs
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Warm-up call failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Executor used for batch fetches and async calls. Defaults to {@link SecretManagerExecutors#defaultExecutor()}.
+     */
+    @Override
+    public Executor getExecutor() {
+        return executor != null ? executor : SecretManagerExecutors.defaultExecutor();
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
     }
 }
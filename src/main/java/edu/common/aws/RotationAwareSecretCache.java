@@ -0,0 +1,351 @@
+package edu.common.aws;
+
+import edu.common.ISecretManagerService;
+import edu.common.exception.SMSecretNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+
+/**
+ * Caches the {@code AWSCURRENT} and {@code AWSPENDING} values of secrets rotated by Secrets Manager.
+ * <p>
+ * About every {@code checkInterval}, the staging labels of each cached secret are read with {@code DescribeSecret},
+ * which does not return values. A new {@code AWSPENDING} version is fetched as soon as it appears, so when the rotation
+ * promotes it to {@code AWSCURRENT} the cache swaps to the value it already holds instead of fetching it. Callers that
+ * get an authentication failure with the current value can retry with {@link #getSecretCandidates(String)}, or ask
+ * for an immediate check with {@link #checkRotation(String)}; concurrent loads and checks of a secret share one call.
+ * <p>
+ * Every delay between two checks is drawn at random between half and one and a half {@code checkInterval} (the first
+ * one between 0 and {@code checkInterval}), so that nodes do not all check at once. Secrets not read for
+ * {@code idleTimeout} are evicted and no longer checked. Updates and deletes through this instance bump the generation
+ * of the secret, so a load or check started before them is never stored nor shared with later callers.
+ */
+public class RotationAwareSecretCache implements ISecretManagerService, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RotationAwareSecretCache.class);
+
+    public static final Duration DEFAULT_CHECK_INTERVAL = Duration.ofSeconds(30);
+
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    /** Generation of secrets without entry */
+    private static final long NO_GENERATION = 0;
+
+    private final AWSSecretManagerService service;
+
+    private final long checkIntervalMillis;
+
+    private final long idleTimeoutNanos;
+
+    private final ConcurrentMap<String, CacheEntry> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, CompletableFuture<RotationState>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong generations = new AtomicLong(NO_GENERATION);
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Cached versions of a secret; {@code pending} is {@code null} when no rotation is in progress.
+     */
+    private static class RotationState {
+        private final SecretVersion current;
+        private final SecretVersion pending;
+
+        private RotationState(SecretVersion current, SecretVersion pending) {
+            this.current = current;
+            this.pending = pending;
+        }
+    }
+
+    /**
+     * Versions of a secret, {@code null} after an update or delete until loaded again, and the generation they belong
+     * to, which changes with every update and delete.
+     */
+    private static class CacheEntry {
+        private final RotationState state;
+        private final long generation;
+        private volatile long lastReadNanos;
+
+        private CacheEntry(RotationState state, long generation, long lastReadNanos) {
+            this.state = state;
+            this.generation = generation;
+            this.lastReadNanos = lastReadNanos;
+        }
+    }
+
+    public RotationAwareSecretCache(AWSSecretManagerService service) {
+        this(service, DEFAULT_CHECK_INTERVAL);
+    }
+
+    public RotationAwareSecretCache(AWSSecretManagerService service, Duration checkInterval) {
+        this(service, checkInterval, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param service service the versions are fetched from
+     * @param checkInterval mean time between two checks of the staging labels of each cached secret
+     * @param idleTimeout time after which a secret that was not read is evicted
+     */
+    public RotationAwareSecretCache(AWSSecretManagerService service, Duration checkInterval, Duration idleTimeout) {
+        Assert.notNull(service, "Service cannot be null");
+        Assert.isTrue(checkInterval != null && !checkInterval.isNegative() && !checkInterval.isZero(), "Check interval must be positive");
+        Assert.isTrue(idleTimeout != null && !idleTimeout.isNegative() && !idleTimeout.isZero(), "Idle timeout must be positive");
+        this.service = service;
+        this.checkIntervalMillis = Math.max(1, checkInterval.toMillis());
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "secret-manager-rotation-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.schedule(this::checkAll, ThreadLocalRandom.current().nextLong(checkIntervalMillis) + 1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return Cached {@code AWSCURRENT} value, loaded on first call
+     */
+    @Override
+    public String getSecret(String secretId) {
+        return state(secretId).current.getValue();
+    }
+
+    /**
+     * @return Cached {@code AWSPENDING} value, {@code null} when no rotation is in progress
+     */
+    public String getPendingSecret(String secretId) {
+        SecretVersion pending = state(secretId).pending;
+        return pending == null ? null : pending.getValue();
+    }
+
+    /**
+     * Values to try, in order, when authenticating with the secret: the current value, then the pending one if a
+     * rotation is in progress.
+     */
+    public List<String> getSecretCandidates(String secretId) {
+        RotationState state = state(secretId);
+        List<String> candidates = new ArrayList<>(2);
+        candidates.add(state.current.getValue());
+        if (state.pending != null) {
+            candidates.add(state.pending.getValue());
+        }
+        return Collections.unmodifiableList(candidates);
+    }
+
+    /**
+     * Checks the staging labels of the secret now, e.g. after an authentication failure, and updates the cache.
+     * Callers checking the same secret at the same time share one check.
+     */
+    public void checkRotation(String secretId) {
+        singleFlight(secretId, state -> check(secretId, state));
+    }
+
+    @Override
+    public void createSecret(String name, String secretString) {
+        service.createSecret(name, secretString);
+    }
+
+    /**
+     * Updates the secret and drops its cached versions; they are loaded again on next use.
+     */
+    @Override
+    public void updateSecretValue(String secretId, String secretString) {
+        service.updateSecretValue(secretId, secretString);
+        invalidate(secretId);
+    }
+
+    @Override
+    public void deleteSecret(String secretId) {
+        service.deleteSecret(secretId);
+        invalidate(secretId);
+    }
+
+    @Override
+    public Stream<String> listSecrets(String nameFilter) {
+        return service.listSecrets(nameFilter);
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return service.getExecutor();
+    }
+
+    /**
+     * @return Number of secrets cached or waiting to be loaded again after a write
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Stops the periodic checks.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private RotationState state(String secretId) {
+        CacheEntry entry = entries.get(secretId);
+        if (entry != null && entry.state != null) {
+            entry.lastReadNanos = System.nanoTime();
+            return entry.state;
+        }
+        // another caller may have loaded it by the time this one runs
+        return singleFlight(secretId, state -> state != null ? state : load(secretId));
+    }
+
+    /**
+     * Starts a new generation of the secret: loads and checks already running keep their result to themselves.
+     */
+    private void invalidate(String secretId) {
+        entries.put(secretId, new CacheEntry(null, generations.incrementAndGet(), System.nanoTime()));
+        inFlight.remove(secretId);
+    }
+
+    /**
+     * Runs {@code call} with the cached state of the secret, {@code null} if none, unless a load or check of the secret
+     * is already running, in which case its result is used. The result is cached only if the secret was neither
+     * updated, deleted nor evicted in the meantime.
+     */
+    private RotationState singleFlight(String secretId, UnaryOperator<RotationState> call) {
+        CompletableFuture<RotationState> mine = new CompletableFuture<>();
+        CompletableFuture<RotationState> running = inFlight.putIfAbsent(secretId, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            CacheEntry started = entries.get(secretId);
+            long generation = started == null ? NO_GENERATION : started.generation;
+            RotationState state = call.apply(started == null ? null : started.state);
+            entries.compute(secretId, (id, current) -> {
+                if ((current == null ? NO_GENERATION : current.generation) != generation) {
+                    return current;
+                }
+                return current == null || current.state == null
+                        ? new CacheEntry(state, current == null ? generations.incrementAndGet() : generation, System.nanoTime())
+                        : new CacheEntry(state, generation, current.lastReadNanos);
+            });
+            mine.complete(state);
+            return state;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(secretId, mine);
+        }
+    }
+
+    private RotationState load(String secretId) {
+        Map<String, List<String>> stages = service.getSecretVersionStages(secretId);
+        String currentId = versionWithStage(stages, SecretVersion.CURRENT_STAGE);
+        if (currentId == null) {
+            throw new SMSecretNotFoundException("Secret " + secretId + " has no " + SecretVersion.CURRENT_STAGE + " version");
+        }
+        SecretVersion current = service.getSecretVersion(secretId, currentId);
+        String pendingId = versionWithStage(stages, SecretVersion.PENDING_STAGE);
+        SecretVersion pending = pendingId == null || pendingId.equals(currentId) ? null : service.getSecretVersion(secretId, pendingId);
+        return new RotationState(current, pending);
+    }
+
+    private RotationState check(String secretId, RotationState state) {
+        if (state == null) {
+            return load(secretId);
+        }
+
+        Map<String, List<String>> stages = service.getSecretVersionStages(secretId);
+        String currentId = versionWithStage(stages, SecretVersion.CURRENT_STAGE);
+        String pendingId = versionWithStage(stages, SecretVersion.PENDING_STAGE);
+        if (currentId == null) {
+            return state;
+        }
+
+        SecretVersion current = state.current;
+        SecretVersion pending = state.pending;
+        if (!currentId.equals(current.getVersionId())) {
+            if (pending != null && currentId.equals(pending.getVersionId())) {
+                LOGGER.info("Pending version of {} promoted, switched to the cached value", keyValue("secretId", secretId));
+                current = pending;
+            } else {
+                current = service.getSecretVersion(secretId, currentId);
+            }
+        }
+
+        if (pendingId == null || pendingId.equals(currentId)) {
+            pending = null;
+        } else if (pending == null || !pendingId.equals(pending.getVersionId())) {
+            LOGGER.info("Rotation of {} started, prefetching the pending version", keyValue("secretId", secretId));
+            pending = service.getSecretVersion(secretId, pendingId);
+        }
+        return new RotationState(current, pending);
+    }
+
+    private void checkAll() {
+        try {
+            long now = System.nanoTime();
+            for (Map.Entry<String, CacheEntry> cached : entries.entrySet()) {
+                String secretId = cached.getKey();
+                CacheEntry entry = cached.getValue();
+                if (now - entry.lastReadNanos > idleTimeoutNanos) {
+                    entries.remove(secretId, entry);
+                    continue;
+                }
+                if (entry.state == null) {
+                    // loaded again on next use
+                    continue;
+                }
+                try {
+                    singleFlight(secretId, state -> check(secretId, state));
+                } catch (SMSecretNotFoundException e) {
+                    entries.computeIfPresent(secretId, (id, current) -> current.generation == entry.generation ? null : current);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not check rotation of {}: {}", keyValue("secretId", secretId), e.getMessage());
+                }
+            }
+        } finally {
+            if (!scheduler.isShutdown()) {
+                long delay = checkIntervalMillis / 2 + ThreadLocalRandom.current().nextLong(checkIntervalMillis + 1);
+                try {
+                    scheduler.schedule(this::checkAll, delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // closed meanwhile
+                }
+            }
+        }
+    }
+
+    private static String versionWithStage(Map<String, List<String>> stages, String stage) {
+        for (Map.Entry<String, List<String>> version : stages.entrySet()) {
+            if (version.getValue() != null && version.getValue().contains(stage)) {
+                return version.getKey();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package edu.common.aws;
+
+/**
+ * Value of one version of a secret, as returned by {@link AWSSecretManagerService#getSecretVersion(String, String)}.
+ */
+public class SecretVersion {
+
+    public static final String CURRENT_STAGE = "AWSCURRENT";
+
+    public static final String PENDING_STAGE = "AWSPENDING";
+
+    private final String versionId;
+
+    private final String value;
+
+    public SecretVersion(String versionId, String value) {
+        this.versionId = versionId;
+        this.value = value;
+    }
+
+    public String getVersionId() {
+        return versionId;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "SecretVersion " + versionId;
+    }
+}
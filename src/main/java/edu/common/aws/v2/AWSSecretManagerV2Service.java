@@ -0,0 +1,386 @@
+package edu.common.aws.v2;
+
+import edu.common.ISecretManagerService;
+import edu.common.bulk.BulkOperationResult;
+import edu.common.concurrent.SecretManagerExecutors;
+import edu.common.exception.SMValidationException;
+import edu.common.paging.Page;
+import edu.common.paging.PagedIterator;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClientBuilder;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClientBuilder;
+import software.amazon.awssdk.services.secretsmanager.model.CreateSecretRequest;
+import software.amazon.awssdk.services.secretsmanager.model.DeleteSecretRequest;
+import software.amazon.awssdk.services.secretsmanager.model.Filter;
+import software.amazon.awssdk.services.secretsmanager.model.FilterNameStringType;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.ListSecretsRequest;
+import software.amazon.awssdk.services.secretsmanager.model.ListSecretsResponse;
+import software.amazon.awssdk.services.secretsmanager.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.secretsmanager.model.SecretListEntry;
+import software.amazon.awssdk.services.secretsmanager.model.UpdateSecretRequest;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static edu.common.exception.SMExceptionLogging.log;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * {@link ISecretManagerService} backed by AWS SDK v2, with a choice of HTTP client (see {@link HttpClientType}).
+ * <p>
+ * With {@link HttpClientType#NETTY_NIO} the service uses the async SDK client, so {@link #getSecretAsync(String)}
+ * does not hold a thread while the request is in flight. The SDK client is built on first use, and closed with its HTTP
+ * client by {@link #close()}, which Spring calls when the bean is destroyed.
+ */
+public class AWSSecretManagerV2Service implements ISecretManagerService, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AWSSecretManagerV2Service.class);
+
+    /** {@code MaxResults} of the {@code ListSecrets} calls made by {@link #listSecrets(String)}, the service maximum */
+    public static final int LIST_PAGE_SIZE = 100;
+
+    private final String accessKey;
+
+    private final String secretKey;
+
+    private final String endpoint;
+
+    private final String region;
+
+    private final HttpClientType httpClientType;
+
+    private volatile SecretsManagerClient syncClient;
+
+    private volatile SecretsManagerAsyncClient asyncClient;
+
+    private Executor executor;
+
+    private boolean closed;
+
+    /**
+     * @param endpoint host name or URI of the endpoint, blank for the default endpoint of {@code region}
+     */
+    public AWSSecretManagerV2Service(String accessKey, String secretKey, String endpoint, String region) {
+        this(accessKey, secretKey, endpoint, region, HttpClientType.URL_CONNECTION);
+    }
+
+    /**
+     * @param endpoint host name or URI of the endpoint, blank for the default endpoint of {@code region}
+     */
+    public AWSSecretManagerV2Service(String accessKey, String secretKey, String endpoint, String region, HttpClientType httpClientType) {
+        Assert.isTrue(isNotBlank(region), "Region cannot be blank");
+        Assert.notNull(httpClientType, "HTTP client type cannot be null");
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.endpoint = endpoint;
+        this.region = region;
+        this.httpClientType = httpClientType;
+    }
+
+    /**
+     * Creates the {@link CreateSecretRequest#name()} in Secrets Manager
+     *
+     * @param name  {@link CreateSecretRequest#name()}
+     * @param secretString {@link CreateSecretRequest#secretString()}
+     */
+    @Override
+    public void createSecret(String name, String secretString) {
+        StopWatch stopWatch = new StopWatch();
+        try {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.info("Storing secret value");
+                stopWatch.start();
+            }
+
+            CreateSecretRequest csr = CreateSecretRequest.builder().name(name).secretString(secretString).build();
+            call(client -> client.createSecret(csr), client -> client.createSecret(csr));
+
+            if (LOGGER.isDebugEnabled()) {
+                stopWatch.stop();
+                LOGGER.info("Created secret in {} nanoseconds", stopWatch.getNanoTime());
+            }
+        } catch (Exception e) {
+            throw log(LOGGER, AWSV2ExceptionTranslator.translate(e));
+        }
+    }
+
+    /**
+     * Updates the {@link UpdateSecretRequest#description()} of {@link UpdateSecretRequest#secretId()} in Secrets Manager
+     *
+     * @param secretId  {@link UpdateSecretRequest#secretId()}
+     * @param secretDescription {@link UpdateSecretRequest#description()}
+     */
+    public void updateSecretDescription(String secretId, String secretDescription) {
+        try {
+            UpdateSecretRequest usr = UpdateSecretRequest.builder().secretId(secretId).description(secretDescription).build();
+            call(client -> client.updateSecret(usr), client -> client.updateSecret(usr));
+        } catch (Exception e) {
+            throw log(LOGGER, AWSV2ExceptionTranslator.translate(e));
+        }
+    }
+
+    /**
+     * Updates the {@link UpdateSecretRequest#secretString()} of {@link UpdateSecretRequest#secretId()} in Secrets Manager
+     *
+     * @param secretId  {@link UpdateSecretRequest#secretId()}
+     * @param secretString {@link UpdateSecretRequest#secretString()}
+     */
+    @Override
+    public void updateSecretValue(String secretId, String secretString) {
+        StopWatch stopWatch = new StopWatch();
+        try {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.info("Storing secret value");
+                stopWatch.start();
+            }
+
+            UpdateSecretRequest usr = UpdateSecretRequest.builder().secretId(secretId).secretString(secretString).build();
+            call(client -> client.updateSecret(usr), client -> client.updateSecret(usr));
+
+            if (LOGGER.isDebugEnabled()) {
+                stopWatch.stop();
+                LOGGER.info("Updated secret in {} nanoseconds", stopWatch.getNanoTime());
+            }
+        } catch (Exception e) {
+            throw log(LOGGER, AWSV2ExceptionTranslator.translate(e));
+        }
+    }
+
+    /**
+     * Retrieves the {@link GetSecretValueRequest#secretId()} in Secrets Manager
+     *
+     * @param secretId  {@link GetSecretValueRequest#secretId()}
+     */
+    @Override
+    public String getSecret(String secretId) {
+        try {
+            GetSecretValueRequest gsr = GetSecretValueRequest.builder().secretId(secretId).build();
+            return secretString(secretId, call(client -> client.getSecretValue(gsr), client -> client.getSecretValue(gsr)));
+        } catch (Exception e) {
+            throw log(LOGGER, AWSV2ExceptionTranslator.translate(e));
+        }
+    }
+
+    /**
+     * With {@link HttpClientType#NETTY_NIO} the request is sent without blocking a thread of {@link #getExecutor()}.
+     */
+    @Override
+    public CompletableFuture<String> getSecretAsync(String secretId) {
+        if (httpClientType != HttpClientType.NETTY_NIO) {
+            return ISecretManagerService.super.getSecretAsync(secretId);
+        }
+
+        GetSecretValueRequest gsr = GetSecretValueRequest.builder().secretId(secretId).build();
+        return asyncClient().getSecretValue(gsr)
+                .thenApply(value -> secretString(secretId, value))
+                .exceptionally(e -> {
+                    throw log(LOGGER, AWSV2ExceptionTranslator.translate(e));
+                });
+    }
+
+    /**
+     * Lists the secrets with {@code ListSecrets}, {@link #LIST_PAGE_SIZE} per page, prefetching the next page on
+     * {@link #getExecutor()}.
+     *
+     * @param nameFilter value of the {@link FilterNameStringType#NAME} filter, {@code null} or blank for none
+     */
+    @Override
+    public Stream<String> listSecrets(String nameFilter) {
+        return new PagedIterator<>(nextToken -> listSecretsPage(nameFilter, nextToken), getExecutor()).stream();
+    }
+
+    private Page<String> listSecretsPage(String nameFilter, String nextToken) {
+        try {
+            ListSecretsRequest.Builder builder = ListSecretsRequest.builder().maxResults(LIST_PAGE_SIZE).nextToken(nextToken);
+            if (StringUtils.isNotBlank(nameFilter)) {
+                builder.filters(Filter.builder().key(FilterNameStringType.NAME).values(nameFilter).build());
+            }
+            ListSecretsRequest lsr = builder.build();
+            ListSecretsResponse response = call(client -> client.listSecrets(lsr), client -> client.listSecrets(lsr));
+            return new Page<>(response.secretList().stream().map(SecretListEntry::name).collect(Collectors.toList()),
+                    response.nextToken());
+        } catch (Exception e) {
+            throw log(LOGGER, AWSV2ExceptionTranslator.translate(e));
+        }
+    }
+
+    /**
+     * Deletes the {@link DeleteSecretRequest#secretId()} in Secrets Manager
+     *
+     * @param secretId  {@link DeleteSecretRequest#secretId()}
+     */
+    @Override
+    public void deleteSecret(String secretId) {
+        deleteSecret(secretId, false);
+    }
+
+    /**
+     * Deletes the {@link DeleteSecretRequest#secretId()} in Secrets Manager
+     *
+     * @param secretId  {@link DeleteSecretRequest#secretId()}
+     * @param forceDeleteWithoutRecovery {@link DeleteSecretRequest#forceDeleteWithoutRecovery()}: delete immediately
+     *                                   instead of scheduling the deletion after the recovery window
+     */
+    public void deleteSecret(String secretId, boolean forceDeleteWithoutRecovery) {
+        try {
+            DeleteSecretRequest.Builder builder = DeleteSecretRequest.builder().secretId(secretId);
+            if (forceDeleteWithoutRecovery) {
+                builder.forceDeleteWithoutRecovery(true);
+            }
+            DeleteSecretRequest dsr = builder.build();
+            call(client -> client.deleteSecret(dsr), client -> client.deleteSecret(dsr));
+        } catch (ResourceNotFoundException e) {
+            LOGGER.debug("Resource not found for Secret ID " + secretId + ". Nothing to delete so quietly ignoring.");
+        } catch (Exception e) {
+            throw log(LOGGER, AWSV2ExceptionTranslator.translate(e));
+        }
+    }
+
+    /**
+     * Deletes every secret of {@code secretIds} through {@link #getBulkPipeline()}, throttled calls being retried.
+     *
+     * @param secretIds {@link DeleteSecretRequest#secretId()} of the secrets
+     * @param forceDeleteWithoutRecovery see {@link #deleteSecret(String, boolean)}
+     * @return One result per secret; a failed item does not stop the others
+     */
+    public Map<String, BulkOperationResult> deleteSecrets(Collection<String> secretIds, boolean forceDeleteWithoutRecovery) {
+        return getBulkPipeline().run(secretIds, secretId -> deleteSecret(secretId, forceDeleteWithoutRecovery), getExecutor());
+    }
+
+    /**
+     * Executor used for batch fetches and async calls. Defaults to {@link SecretManagerExecutors#defaultExecutor()}.
+     */
+    @Override
+    public Executor getExecutor() {
+        return executor != null ? executor : SecretManagerExecutors.defaultExecutor();
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public HttpClientType getHttpClientType() {
+        return httpClientType;
+    }
+
+    /**
+     * Closes the SDK clients built so far, releasing their connections and threads. Later calls fail.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (syncClient != null) {
+            syncClient.close();
+            syncClient = null;
+        }
+        if (asyncClient != null) {
+            asyncClient.close();
+            asyncClient = null;
+        }
+    }
+
+    private static String secretString(String secretId, GetSecretValueResponse value) {
+        if (value == null || StringUtils.isBlank(value.secretString())) {
+            //couldn't get record
+            throw new SMValidationException("Value came back Blank for Secret Named: " + secretId, null, SMValidationException.BLANK_VALUE_ERROR_CODE);
+        }
+        return value.secretString();
+    }
+
+    /**
+     * Runs a request on the sync client, or on the async client (waiting for the response) for {@link HttpClientType#NETTY_NIO}.
+     */
+    private <T> T call(Function<SecretsManagerClient, T> syncCall, Function<SecretsManagerAsyncClient, CompletableFuture<T>> asyncCall) {
+        if (httpClientType != HttpClientType.NETTY_NIO) {
+            return syncCall.apply(syncClient());
+        }
+        try {
+            return asyncCall.apply(asyncClient()).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private SecretsManagerClient syncClient() {
+        SecretsManagerClient client = syncClient;
+        if (client == null) {
+            synchronized (this) {
+                checkNotClosed();
+                client = syncClient;
+                if (client == null) {
+                    SecretsManagerClientBuilder builder = SecretsManagerClient.builder()
+                            .httpClientBuilder(httpClientType == HttpClientType.APACHE ? ApacheHttpClient.builder() : UrlConnectionHttpClient.builder())
+                            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                            .region(Region.of(region.trim()));
+                    if (isNotBlank(endpoint)) {
+                        builder.endpointOverride(endpointUri());
+                    }
+                    client = builder.build();
+                    syncClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private SecretsManagerAsyncClient asyncClient() {
+        SecretsManagerAsyncClient client = asyncClient;
+        if (client == null) {
+            synchronized (this) {
+                checkNotClosed();
+                client = asyncClient;
+                if (client == null) {
+                    SecretsManagerAsyncClientBuilder builder = SecretsManagerAsyncClient.builder()
+                            .httpClientBuilder(NettyNioAsyncHttpClient.builder())
+                            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                            .region(Region.of(region.trim()));
+                    if (isNotBlank(endpoint)) {
+                        builder.endpointOverride(endpointUri());
+                    }
+                    client = builder.build();
+                    asyncClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Secrets Manager service is closed");
+        }
+    }
+
+    /**
+     * {@code aws.sm.endpoint} is a bare host name for the v1 SDK, the v2 SDK needs a scheme.
+     */
+    private URI endpointUri() {
+        String trimmed = endpoint.trim();
+        return URI.create(trimmed.contains("://") ? trimmed : "https://" + trimmed);
+    }
+}
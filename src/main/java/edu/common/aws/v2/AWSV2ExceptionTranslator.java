@@ -0,0 +1,93 @@
+package edu.common.aws.v2;
+
+import edu.common.exception.SMAccessDeniedException;
+import edu.common.exception.SMSecretNotFoundException;
+import edu.common.exception.SMServiceException;
+import edu.common.exception.SMThrottledException;
+import edu.common.exception.SMTransientException;
+import edu.common.exception.SMValidationException;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Maps AWS SDK v2 exceptions onto the {@link SMServiceException} hierarchy.
+ */
+public final class AWSV2ExceptionTranslator {
+
+    public static final String CLIENT_ERROR_CODE = "ClientError";
+
+    private static final Set<String> ACCESS_DENIED_CODES = new HashSet<>(Arrays.asList(
+            "AccessDeniedException", "AccessDenied", "UnrecognizedClientException", "InvalidSignatureException",
+            "ExpiredTokenException", "IncompleteSignature", "SignatureDoesNotMatch", "DecryptionFailure"));
+
+    private static final Set<String> VALIDATION_CODES = new HashSet<>(Arrays.asList(
+            "InvalidParameterException", "InvalidRequestException", "ResourceExistsException",
+            "MalformedPolicyDocumentException", "PreconditionNotMetException", "ValidationException",
+            "EncryptionFailure"));
+
+    private AWSV2ExceptionTranslator() {}
+
+    /**
+     * @param e exception thrown while calling AWS Secrets Manager, possibly wrapped in a {@link CompletionException}
+     * @return the matching {@link SMServiceException}, or the exception itself if it already is one
+     */
+    public static SMServiceException translate(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (e instanceof SMServiceException) {
+            return (SMServiceException) e;
+        }
+        if (e instanceof AwsServiceException) {
+            AwsServiceException ase = (AwsServiceException) e;
+            String code = ase.awsErrorDetails() == null ? null : ase.awsErrorDetails().errorCode();
+            String message = ase.awsErrorDetails() == null ? ase.getMessage() : ase.awsErrorDetails().errorMessage();
+            int status = ase.statusCode();
+
+            if (SMSecretNotFoundException.ERROR_CODE.equals(code)) {
+                return new SMSecretNotFoundException(message, ase, code);
+            }
+            if (ase.isThrottlingException()) {
+                return new SMThrottledException(message, ase, code);
+            }
+            if (ACCESS_DENIED_CODES.contains(code) || status == 401 || status == 403) {
+                return new SMAccessDeniedException(message, ase, code);
+            }
+            if (VALIDATION_CODES.contains(code)) {
+                return new SMValidationException(message, ase, code);
+            }
+            if (status >= 500) {
+                return new SMTransientException(message, ase, code);
+            }
+            return new SMServiceException(message, ase, code);
+        }
+        if (e instanceof SdkClientException && isRetryable((SdkClientException) e)) {
+            return new SMTransientException(e.getMessage(), e, CLIENT_ERROR_CODE);
+        }
+        return new SMServiceException(e.getMessage(), e);
+    }
+
+    /**
+     * Unlike SDK v1, {@link SdkClientException#retryable()} is false unless set explicitly, so timeouts and I/O
+     * errors are recognised here.
+     */
+    private static boolean isRetryable(SdkClientException e) {
+        if (e.retryable() || e instanceof ApiCallTimeoutException || e instanceof ApiCallAttemptTimeoutException) {
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,13 @@
+package edu.common.aws.v2;
+
+/**
+ * HTTP client used by {@link AWSSecretManagerV2Service}. The matching SDK module has to be on the classpath.
+ */
+public enum HttpClientType {
+    /** {@code url-connection-client}: JDK HttpURLConnection, fewest classes loaded and least metaspace of the three */
+    URL_CONNECTION,
+    /** {@code apache-client}: pooled connections, suited to sustained traffic */
+    APACHE,
+    /** {@code netty-nio-client}: non-blocking I/O, async calls do not hold a thread while waiting */
+    NETTY_NIO
+}
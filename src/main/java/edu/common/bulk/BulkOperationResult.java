@@ -0,0 +1,54 @@
+package edu.common.bulk;
+
+/**
+ * Outcome of one item of a bulk create or delete.
+ */
+public class BulkOperationResult {
+
+    private final String secretId;
+
+    private final RuntimeException error;
+
+    private final int attempts;
+
+    private BulkOperationResult(String secretId, RuntimeException error, int attempts) {
+        this.secretId = secretId;
+        this.error = error;
+        this.attempts = attempts;
+    }
+
+    public static BulkOperationResult success(String secretId, int attempts) {
+        return new BulkOperationResult(secretId, null, attempts);
+    }
+
+    public static BulkOperationResult failure(String secretId, RuntimeException error, int attempts) {
+        return new BulkOperationResult(secretId, error, attempts);
+    }
+
+    public String getSecretId() {
+        return secretId;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return Exception of the last attempt, {@code null} on success
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    /**
+     * @return Number of calls made for this item, retries included
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    @Override
+    public String toString() {
+        return secretId + (isSuccess() ? ": OK" : ": " + error) + " after " + attempts + " attempt(s)";
+    }
+}
@@ -0,0 +1,206 @@
+package edu.common.bulk;
+
+import edu.common.exception.SMServiceException;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs one operation per secret ID with at most {@code maxConcurrency} calls in flight.
+ * <p>
+ * Retryable failures ({@link SMServiceException#isRetryable()}, e.g. throttling) are retried up to
+ * {@code maxAttempts} times with exponential backoff and full jitter. The back-off is shared by every call of a run:
+ * a retryable failure pauses all of them for its backoff and halves the number of calls allowed in flight, which then
+ * grows back by one after each round of successful calls (additive increase, multiplicative decrease). A throttled
+ * run therefore slows down as a whole instead of keeping full pressure on the backend. Runs do not share this state,
+ * so separate runs, or other clients of the backend, are not slowed down.
+ */
+public class BulkPipeline {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(5);
+
+    private static final BulkPipeline DEFAULT = new BulkPipeline();
+
+    private final int maxConcurrency;
+
+    private final int maxAttempts;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    /**
+     * Concurrency limit and pause shared by the calls of one run.
+     */
+    private static class AdaptiveLimit {
+        private final int maxLimit;
+        private int limit;
+        private int running;
+        private int successes;
+        private long pausedUntilNanos = System.nanoTime();
+
+        private AdaptiveLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            this.limit = maxLimit;
+        }
+
+        /**
+         * Waits for the end of the pause and for a call to be allowed.
+         * @return false if interrupted
+         */
+        private synchronized boolean enter() {
+            try {
+                while (true) {
+                    long pause = pausedUntilNanos - System.nanoTime();
+                    if (pause > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, pause);
+                    } else if (running >= limit) {
+                        wait();
+                    } else {
+                        running++;
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * @param backoffMillis pause of every call after a retryable failure, negative after any other outcome
+         */
+        private synchronized void exit(long backoffMillis) {
+            running--;
+            if (backoffMillis >= 0) {
+                limit = Math.max(1, limit / 2);
+                successes = 0;
+                long pausedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+                if (pausedUntil - pausedUntilNanos > 0) {
+                    pausedUntilNanos = pausedUntil;
+                }
+            } else if (limit < maxLimit && ++successes >= limit) {
+                limit++;
+                successes = 0;
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return Pipeline with the default settings, used by the bulk operations of {@code ISecretManagerService}
+     */
+    public static BulkPipeline defaultPipeline() {
+        return DEFAULT;
+    }
+
+    public BulkPipeline() {
+        this(DEFAULT_MAX_CONCURRENCY, DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+    }
+
+    public BulkPipeline(int maxConcurrency, int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        Assert.isTrue(maxConcurrency > 0, "Max concurrency must be positive");
+        Assert.isTrue(maxAttempts > 0, "Max attempts must be positive");
+        Assert.notNull(initialBackoff, "Initial backoff cannot be null");
+        Assert.notNull(maxBackoff, "Max backoff cannot be null");
+        this.maxConcurrency = maxConcurrency;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Applies {@code operation} to every secret ID and waits for all of them.
+     *
+     * @param secretIds IDs to process, duplicates are processed once
+     * @param operation call made for each ID
+     * @param executor executor running the calls
+     * @return One result per ID, in the iteration order of {@code secretIds}
+     */
+    public Map<String, BulkOperationResult> run(Collection<String> secretIds, Consumer<String> operation, Executor executor) {
+        Semaphore slots = new Semaphore(maxConcurrency);
+        AdaptiveLimit limit = new AdaptiveLimit(maxConcurrency);
+        Map<String, CompletableFuture<BulkOperationResult>> futures = new LinkedHashMap<>();
+
+        for (String secretId : secretIds) {
+            if (futures.containsKey(secretId)) {
+                continue;
+            }
+            slots.acquireUninterruptibly();
+            CompletableFuture<BulkOperationResult> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> runWithRetries(secretId, operation, limit), executor);
+            } catch (RuntimeException e) {
+                slots.release();
+                throw e;
+            }
+            future.whenComplete((result, error) -> slots.release());
+            futures.put(secretId, future);
+        }
+
+        Map<String, BulkOperationResult> results = new LinkedHashMap<>();
+        futures.forEach((secretId, future) -> results.put(secretId, future.join()));
+        return results;
+    }
+
+    /**
+     * @return IDs of the failed items of {@code results}
+     */
+    public static List<String> failedIds(Map<String, BulkOperationResult> results) {
+        List<String> failed = new ArrayList<>();
+        results.forEach((secretId, result) -> {
+            if (!result.isSuccess()) {
+                failed.add(secretId);
+            }
+        });
+        return failed;
+    }
+
+    private BulkOperationResult runWithRetries(String secretId, Consumer<String> operation, AdaptiveLimit limit) {
+        RuntimeException error = null;
+        for (int attempt = 1; ; attempt++) {
+            if (!limit.enter()) {
+                return BulkOperationResult.failure(secretId,
+                        error != null ? error : new SMServiceException("Interrupted before " + secretId + " was processed"), attempt - 1);
+            }
+            long backoff = -1;
+            try {
+                operation.accept(secretId);
+                return BulkOperationResult.success(secretId, attempt);
+            } catch (RuntimeException e) {
+                boolean retryable = e instanceof SMServiceException && ((SMServiceException) e).isRetryable();
+                if (retryable) {
+                    backoff = backoff(attempt);
+                }
+                if (!retryable || attempt >= maxAttempts) {
+                    return BulkOperationResult.failure(secretId, e, attempt);
+                }
+                error = e;
+            } finally {
+                limit.exit(backoff);
+            }
+        }
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
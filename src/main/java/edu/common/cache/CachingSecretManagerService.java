@@ -0,0 +1,225 @@
+package edu.common.cache;
+
+import edu.common.ISecretManagerService;
+import edu.common.cache.invalidation.InvalidationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+
+/**
+ * Caches secret values of a delegate {@link ISecretManagerService} for {@code ttl}.
+ * <p>
+ * Writes through this instance update the local entry. When an {@link InvalidationBus} is given, writes, deletes and
+ * changes noticed when an expired entry is fetched again are published, and invalidations received from peers evict
+ * the entry (or, with {@code refreshOnInvalidation}, fetch it again in the background) instead of waiting for the TTL.
+ * <p>
+ * Every entry carries a generation, and an invalidation leaves a tombstone with a new one, so a value loaded while the
+ * secret was written or invalidated is dropped instead of being cached over the newer state. Tombstones expire with
+ * the TTL: a load that started earlier could only cache an already expired value.
+ */
+public class CachingSecretManagerService implements ISecretManagerService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingSecretManagerService.class);
+
+    private final ISecretManagerService delegate;
+
+    private final long ttlNanos;
+
+    private final InvalidationBus invalidationBus;
+
+    private final boolean refreshOnInvalidation;
+
+    /** Generation of a secret without entry */
+    private static final long NO_GENERATION = 0;
+
+    /** Tombstones put between two purges of the expired ones */
+    private static final int PURGE_INTERVAL = 1024;
+
+    private final ConcurrentMap<String, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong generations = new AtomicLong(NO_GENERATION);
+
+    private final AtomicInteger tombstonesSincePurge = new AtomicInteger();
+
+    /** Generation of the last {@link #invalidateAll()}, loads started before it are not cached */
+    private volatile long invalidatedAllGeneration = NO_GENERATION;
+
+    /**
+     * Cached value, or tombstone ({@code value == null}) of an invalidated secret.
+     */
+    private static class CacheEntry {
+        private final String value;
+        private final long expiresAtNanos;
+        private final long generation;
+
+        private CacheEntry(String value, long expiresAtNanos, long generation) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+            this.generation = generation;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+
+        private boolean isFresh(long now) {
+            return value != null && !isExpired(now);
+        }
+    }
+
+    public CachingSecretManagerService(ISecretManagerService delegate, Duration ttl) {
+        this(delegate, ttl, null, false);
+    }
+
+    /**
+     * @param delegate service the values are fetched from and written to
+     * @param ttl time a value is served from the cache before being fetched again
+     * @param invalidationBus bus shared with the peers, or {@code null} for a purely local cache
+     * @param refreshOnInvalidation fetch invalidated entries again right away instead of evicting them
+     */
+    public CachingSecretManagerService(ISecretManagerService delegate, Duration ttl, InvalidationBus invalidationBus, boolean refreshOnInvalidation) {
+        Assert.notNull(delegate, "Delegate cannot be null");
+        Assert.isTrue(ttl != null && !ttl.isNegative(), "TTL cannot be null or negative");
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.invalidationBus = invalidationBus;
+        this.refreshOnInvalidation = refreshOnInvalidation;
+        if (invalidationBus != null) {
+            invalidationBus.addListener(this::onRemoteInvalidation);
+        }
+    }
+
+    @Override
+    public String getSecret(String secretId) {
+        long now = System.nanoTime();
+        CacheEntry entry = cache.get(secretId);
+        if (entry != null && entry.isFresh(now)) {
+            return entry.value;
+        }
+
+        long loadGeneration = generations.get();
+        String value = delegate.getSecret(secretId);
+        store(secretId, generationOf(entry), loadGeneration, value, now);
+        if (entry != null && entry.value != null && !Objects.equals(entry.value, value)) {
+            LOGGER.debug("Secret {} changed since it was cached", keyValue("secretId", secretId));
+            publish(secretId);
+        }
+        return value;
+    }
+
+    @Override
+    public void createSecret(String name, String secretString) {
+        delegate.createSecret(name, secretString);
+    }
+
+    @Override
+    public void updateSecretValue(String secretId, String secretString) {
+        delegate.updateSecretValue(secretId, secretString);
+        cache.put(secretId, new CacheEntry(secretString, System.nanoTime() + ttlNanos, generations.incrementAndGet()));
+        publish(secretId);
+    }
+
+    @Override
+    public void deleteSecret(String secretId) {
+        delegate.deleteSecret(secretId);
+        putTombstone(secretId);
+        publish(secretId);
+    }
+
+    /**
+     * Drops the cached value of the secret on this node only.
+     */
+    public void invalidate(String secretId) {
+        putTombstone(secretId);
+    }
+
+    /**
+     * Drops every cached value on this node only.
+     */
+    public void invalidateAll() {
+        invalidatedAllGeneration = generations.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * @return true if the secret has a cached, unexpired value
+     */
+    public boolean isCached(String secretId) {
+        CacheEntry entry = cache.get(secretId);
+        return entry != null && entry.isFresh(System.nanoTime());
+    }
+
+    @Override
+    public Stream<String> listSecrets(String nameFilter) {
+        return delegate.listSecrets(nameFilter);
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return delegate.getExecutor();
+    }
+
+    private void publish(String secretId) {
+        if (invalidationBus != null) {
+            invalidationBus.publish(secretId);
+        }
+    }
+
+    /**
+     * Caches a loaded value unless the secret was written or invalidated since the load started.
+     * @param entryGeneration generation of the entry when the load started
+     * @param loadGeneration value of {@link #generations} when the load started
+     * @param loadStartNanos values are only as fresh as the start of their load
+     */
+    private void store(String secretId, long entryGeneration, long loadGeneration, String value, long loadStartNanos) {
+        CacheEntry loaded = new CacheEntry(value, loadStartNanos + ttlNanos, generations.incrementAndGet());
+        if (loaded.isExpired(System.nanoTime())) {
+            return;
+        }
+        cache.compute(secretId, (id, current) ->
+                generationOf(current) == entryGeneration && invalidatedAllGeneration <= loadGeneration ? loaded : current);
+    }
+
+    /**
+     * @return Generation of the tombstone
+     */
+    private long putTombstone(String secretId) {
+        long now = System.nanoTime();
+        long generation = generations.incrementAndGet();
+        cache.put(secretId, new CacheEntry(null, now + ttlNanos, generation));
+        if (tombstonesSincePurge.incrementAndGet() >= PURGE_INTERVAL) {
+            tombstonesSincePurge.set(0);
+            cache.values().removeIf(entry -> entry.value == null && entry.isExpired(now));
+        }
+        return generation;
+    }
+
+    private static long generationOf(CacheEntry entry) {
+        return entry != null ? entry.generation : NO_GENERATION;
+    }
+
+    private void onRemoteInvalidation(String secretId) {
+        CacheEntry evicted = cache.get(secretId);
+        long generation = putTombstone(secretId);
+        if (refreshOnInvalidation && evicted != null && evicted.value != null) {
+            long start = System.nanoTime();
+            long loadGeneration = generations.get();
+            CompletableFuture.runAsync(() -> store(secretId, generation, loadGeneration, delegate.getSecret(secretId), start),
+                    getExecutor()).exceptionally(e -> {
+                LOGGER.debug("Could not refresh invalidated secret {}: {}", keyValue("secretId", secretId), e.getMessage());
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package edu.common.cache.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+
+/**
+ * Publishes and receives cache invalidations over an {@link InvalidationTransport}.
+ * <p>
+ * Each bus stamps its messages with its node ID, its epoch (the time it was created, which changes when the node
+ * restarts) and a sequence number. For every origin and secret the bus remembers the last sequence number received and
+ * drops duplicates and messages overtaken by a later one from the same origin, as well as its own messages echoed back
+ * by the transport. Messages of different origins never suppress each other: evictions are idempotent, so applying
+ * one too many is harmless while dropping one would leave a stale value cached. Messages from an earlier epoch of a
+ * peer are applied without deduplication. Listeners are only called for messages that pass.
+ * <p>
+ * Nodes get a new ID when they restart, so the state of origins silent for longer than {@code maxOriginAge} is
+ * dropped. A late message of such an origin is then applied again, which is harmless.
+ */
+public class InvalidationBus implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final String nodeId;
+
+    private final InvalidationTransport transport;
+
+    private final long epoch = System.currentTimeMillis();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** Default time after which a silent origin is forgotten */
+    public static final Duration DEFAULT_MAX_ORIGIN_AGE = Duration.ofHours(1);
+
+    private final ConcurrentMap<String, OriginState> origins = new ConcurrentHashMap<>();
+
+    private final long maxOriginAgeNanos;
+
+    private final AtomicLong lastPurgeNanos = new AtomicLong(System.nanoTime());
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private final InvalidationMetrics metrics = new InvalidationMetrics();
+
+    /**
+     * Last sequence number received from the current epoch of a peer, by secret.
+     */
+    private static class OriginState {
+        private final long epoch;
+        private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+        private volatile long lastSeenNanos = System.nanoTime();
+
+        private OriginState(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    public InvalidationBus(InvalidationTransport transport) {
+        this(UUID.randomUUID().toString(), transport);
+    }
+
+    public InvalidationBus(String nodeId, InvalidationTransport transport) {
+        this(nodeId, transport, DEFAULT_MAX_ORIGIN_AGE);
+    }
+
+    /**
+     * @param maxOriginAge time after which the state kept for an origin that sent nothing is dropped
+     */
+    public InvalidationBus(String nodeId, InvalidationTransport transport, Duration maxOriginAge) {
+        Assert.isTrue(maxOriginAge != null && !maxOriginAge.isNegative(), "Max origin age cannot be null or negative");
+        this.nodeId = nodeId;
+        this.transport = transport;
+        this.maxOriginAgeNanos = maxOriginAge.toNanos();
+        transport.start(this::receive);
+    }
+
+    /**
+     * Registers a listener called with the secret ID of every invalidation received from a peer.
+     */
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Tells the peers that {@code secretId} changed.
+     */
+    public void publish(String secretId) {
+        InvalidationMessage message = new InvalidationMessage(secretId, nodeId, epoch, sequence.incrementAndGet(), System.currentTimeMillis());
+        transport.send(message.toBytes());
+        metrics.recordPublished();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public InvalidationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return Number of origins whose messages are being deduplicated
+     */
+    int getOriginCount() {
+        return origins.size();
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+    }
+
+    void receive(byte[] payload) {
+        InvalidationMessage message;
+        try {
+            message = InvalidationMessage.fromBytes(payload, 0, payload.length);
+        } catch (IllegalArgumentException e) {
+            metrics.recordMalformed();
+            LOGGER.debug("Dropping malformed invalidation message: {}", e.getMessage());
+            return;
+        }
+        metrics.recordReceived();
+        if (!accept(message)) {
+            metrics.recordDropped();
+            return;
+        }
+
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(message.getSecretId());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Invalidation listener failed for {}: {}", keyValue("secretId", message.getSecretId()), e.getMessage());
+            }
+        }
+        metrics.recordApplied(System.currentTimeMillis() - message.getSentAtMillis());
+    }
+
+    /**
+     * @return false for own messages, duplicates and messages older than the last one received from the same origin
+     */
+    private boolean accept(InvalidationMessage message) {
+        if (nodeId.equals(message.getOriginNodeId()) && epoch == message.getEpoch()) {
+            return false;
+        }
+
+        purgeSilentOrigins();
+        OriginState origin = origins.compute(message.getOriginNodeId(),
+                (originNodeId, current) -> current == null || message.getEpoch() > current.epoch ? new OriginState(message.getEpoch()) : current);
+        if (message.getEpoch() != origin.epoch) {
+            // sent before the peer restarted
+            return true;
+        }
+        origin.lastSeenNanos = System.nanoTime();
+
+        boolean[] accepted = new boolean[1];
+        origin.versions.compute(message.getSecretId(), (secretId, last) -> {
+            accepted[0] = last == null || message.getVersion() > last;
+            return accepted[0] ? message.getVersion() : last;
+        });
+        return accepted[0];
+    }
+
+    /**
+     * Drops the origins silent for longer than the max age, at most once per max age.
+     */
+    private void purgeSilentOrigins() {
+        long now = System.nanoTime();
+        long lastPurge = lastPurgeNanos.get();
+        if (now - lastPurge < maxOriginAgeNanos || !lastPurgeNanos.compareAndSet(lastPurge, now)) {
+            return;
+        }
+        origins.values().removeIf(origin -> now - origin.lastSeenNanos > maxOriginAgeNanos);
+    }
+}
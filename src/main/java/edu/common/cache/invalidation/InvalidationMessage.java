@@ -0,0 +1,94 @@
+package edu.common.cache.invalidation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Tells peers that their cached copy of a secret is stale.
+ * <p>
+ * {@code version} is a sequence number of the sending node, which grows with every message it publishes. It is reset
+ * when the node restarts, so messages are identified by {@code originNodeId}, {@code epoch} (the start time of the
+ * sending bus) and {@code version}, which lets receivers drop duplicates and messages overtaken by a newer one from the
+ * same origin.
+ */
+public class InvalidationMessage {
+
+    private static final byte FORMAT_VERSION = 2;
+
+    private final String secretId;
+
+    private final String originNodeId;
+
+    private final long epoch;
+
+    private final long version;
+
+    private final long sentAtMillis;
+
+    public InvalidationMessage(String secretId, String originNodeId, long epoch, long version, long sentAtMillis) {
+        this.secretId = secretId;
+        this.originNodeId = originNodeId;
+        this.epoch = epoch;
+        this.version = version;
+        this.sentAtMillis = sentAtMillis;
+    }
+
+    public String getSecretId() {
+        return secretId;
+    }
+
+    public String getOriginNodeId() {
+        return originNodeId;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getSentAtMillis() {
+        return sentAtMillis;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + secretId.length());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(secretId);
+            out.writeUTF(originNodeId);
+            out.writeLong(epoch);
+            out.writeLong(version);
+            out.writeLong(sentAtMillis);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code payload} is not an invalidation message
+     */
+    public static InvalidationMessage fromBytes(byte[] payload, int offset, int length) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, offset, length))) {
+            byte format = in.readByte();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported invalidation message format " + format);
+            }
+            return new InvalidationMessage(in.readUTF(), in.readUTF(), in.readLong(), in.readLong(), in.readLong());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed invalidation message", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "InvalidationMessage{secretId=" + secretId + ", origin=" + originNodeId + ", epoch=" + epoch + ", version=" + version + "}";
+    }
+}
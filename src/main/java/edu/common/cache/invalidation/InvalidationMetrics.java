@@ -0,0 +1,91 @@
+package edu.common.cache.invalidation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of an {@link InvalidationBus}. Latency is measured from the send time stamped by the origin node to the
+ * moment the message is applied locally, so it is only meaningful between nodes with synchronised clocks.
+ */
+public class InvalidationMetrics {
+
+    private final LongAdder published = new LongAdder();
+
+    private final LongAdder received = new LongAdder();
+
+    private final LongAdder applied = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder malformed = new LongAdder();
+
+    private final LongAdder latencyTotalMillis = new LongAdder();
+
+    private final AtomicLong latencyMaxMillis = new AtomicLong();
+
+    void recordPublished() {
+        published.increment();
+    }
+
+    void recordReceived() {
+        received.increment();
+    }
+
+    void recordApplied(long latencyMillis) {
+        applied.increment();
+        long latency = Math.max(0, latencyMillis);
+        latencyTotalMillis.add(latency);
+        latencyMaxMillis.accumulateAndGet(latency, Math::max);
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void recordMalformed() {
+        malformed.increment();
+    }
+
+    /** @return messages sent by this node */
+    public long getPublished() {
+        return published.sum();
+    }
+
+    /** @return messages received from peers, before deduplication */
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /** @return messages that invalidated a cache entry */
+    public long getApplied() {
+        return applied.sum();
+    }
+
+    /** @return own messages, duplicates and messages overtaken by a newer invalidation of the same secret from the same origin */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /** @return payloads that could not be decoded */
+    public long getMalformed() {
+        return malformed.sum();
+    }
+
+    /** @return mean invalidation latency of the applied messages, in milliseconds */
+    public double getMeanLatencyMillis() {
+        long count = applied.sum();
+        return count == 0 ? 0 : (double) latencyTotalMillis.sum() / count;
+    }
+
+    /** @return highest invalidation latency of the applied messages, in milliseconds */
+    public long getMaxLatencyMillis() {
+        return latencyMaxMillis.get();
+    }
+
+    @Override
+    public String toString() {
+        return "InvalidationMetrics{published=" + getPublished() + ", received=" + getReceived() + ", applied=" + getApplied()
+                + ", dropped=" + getDropped() + ", malformed=" + getMalformed()
+                + ", meanLatencyMillis=" + getMeanLatencyMillis() + ", maxLatencyMillis=" + getMaxLatencyMillis() + "}";
+    }
+}
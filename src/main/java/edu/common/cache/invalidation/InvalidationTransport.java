@@ -0,0 +1,24 @@
+package edu.common.cache.invalidation;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+/**
+ * Carries encoded {@link InvalidationMessage}s between the nodes of a cluster. Delivery may be lossy, duplicated or
+ * out of order; {@link InvalidationBus} copes with all three.
+ */
+public interface InvalidationTransport extends Closeable {
+
+    /**
+     * Starts delivering the payloads sent by peers to {@code receiver}.
+     */
+    void start(Consumer<byte[]> receiver);
+
+    /**
+     * Sends a payload to every peer. A transport may also deliver it back to the sender.
+     */
+    void send(byte[] payload);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,48 @@
+package edu.common.cache.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process transport: every transport attached to the same {@link Hub} receives what the others send.
+ * Meant for tests and for several caches sharing one JVM.
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    /**
+     * The shared medium of a group of loopback transports.
+     */
+    public static class Hub {
+        private final List<LoopbackInvalidationTransport> transports = new CopyOnWriteArrayList<>();
+    }
+
+    private final Hub hub;
+
+    private volatile Consumer<byte[]> receiver;
+
+    public LoopbackInvalidationTransport(Hub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        hub.transports.add(this);
+    }
+
+    @Override
+    public void send(byte[] payload) {
+        for (LoopbackInvalidationTransport transport : hub.transports) {
+            if (transport != this && transport.receiver != null) {
+                transport.receiver.accept(payload.clone());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        hub.transports.remove(this);
+        receiver = null;
+    }
+}
@@ -0,0 +1,121 @@
+package edu.common.cache.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * UDP multicast transport. Every node joining the same group and port receives the messages of the others,
+ * including nodes on the same machine (multicast loopback is left enabled).
+ */
+public class MulticastInvalidationTransport implements InvalidationTransport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MulticastInvalidationTransport.class);
+
+    public static final String DEFAULT_GROUP = "239.255.77.77";
+
+    public static final int DEFAULT_PORT = 47477;
+
+    private static final int MAX_PAYLOAD = 1500;
+
+    private final InetSocketAddress group;
+
+    private final int timeToLive;
+
+    private MulticastSocket socket;
+
+    private Thread receiverThread;
+
+    private volatile boolean running;
+
+    public MulticastInvalidationTransport() {
+        this(DEFAULT_GROUP, DEFAULT_PORT, 1);
+    }
+
+    /**
+     * @param group multicast group address
+     * @param port UDP port shared by the nodes
+     * @param timeToLive number of router hops the messages may cross, 0 keeps them on this host
+     */
+    public MulticastInvalidationTransport(String group, int port, int timeToLive) {
+        this.group = new InetSocketAddress(group, port);
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public synchronized void start(Consumer<byte[]> receiver) {
+        if (running) {
+            throw new IllegalStateException("Transport already started");
+        }
+        try {
+            socket = new MulticastSocket(group.getPort());
+            socket.setTimeToLive(timeToLive);
+            socket.joinGroup(group, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not join multicast group " + group, e);
+        }
+        running = true;
+        receiverThread = new Thread(() -> receive(receiver), "secret-manager-invalidation-receiver");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    @Override
+    public void send(byte[] payload) {
+        if (payload.length > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Invalidation payload too large: " + payload.length + " bytes");
+        }
+        try {
+            socket.send(new DatagramPacket(payload, payload.length, group));
+        } catch (IOException e) {
+            // lossy by contract, the TTL of the caches bounds the staleness
+            LOGGER.warn("Could not send invalidation message: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (socket != null) {
+            try {
+                socket.leaveGroup(group, null);
+            } catch (IOException e) {
+                LOGGER.debug("Could not leave multicast group: {}", e.getMessage());
+            }
+            socket.close();
+        }
+        if (receiverThread != null) {
+            receiverThread.interrupt();
+        }
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[MAX_PAYLOAD];
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                receiver.accept(Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength()));
+            } catch (SocketException e) {
+                if (running) {
+                    LOGGER.warn("Invalidation receiver socket error: {}", e.getMessage());
+                }
+                if (socket.isClosed()) {
+                    return;
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not receive invalidation message: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not handle invalidation message: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package edu.common.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory for the executors used by the library for blocking work (batch fetches, refreshes and async adapters).
+ * <p>
+ * This is the Java 11 baseline, backed by bounded platform-thread pools. On Java 21+ the multi-release JAR
+ * replaces this class with a version that hands out virtual-thread-per-task executors.
+ */
+public final class SecretManagerExecutors {
+
+    private static final int POOL_SIZE = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+
+    private SecretManagerExecutors() {}
+
+    private static class DefaultExecutorHolder {
+        private static final ExecutorService INSTANCE = newBlockingExecutor("secret-manager");
+    }
+
+    /**
+     * Shared executor used when no executor has been supplied to a service.
+     * @return Lazily created executor, shared by every service in the JVM.
+     */
+    public static ExecutorService defaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    /**
+     * Creates a new executor suited to blocking SDK calls.
+     * @param namePrefix Prefix of the names given to the executor threads.
+     * @return New executor; the caller is responsible for shutting it down.
+     */
+    public static ExecutorService newBlockingExecutor(String namePrefix) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreadFactory(namePrefix));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @return true when the executors handed out by this class run tasks on virtual threads.
+     */
+    public static boolean isVirtualThreadMode() {
+        return false;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package edu.common.exception;
+
+/**
+ * The credentials are invalid or not allowed to perform the operation on the secret.
+ */
+public class SMAccessDeniedException extends SMServiceException {
+
+    public static final String ERROR_CODE = "AccessDeniedException";
+
+    public SMAccessDeniedException(String message) {
+        this(message, null, ERROR_CODE);
+    }
+
+    public SMAccessDeniedException(String message, Throwable cause, String errorCode) {
+        super(message, cause, errorCode, false, true);
+    }
+}
@@ -0,0 +1,34 @@
+package edu.common.exception;
+
+import org.slf4j.Logger;
+
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+
+/**
+ * Logs {@link SMServiceException}s at a level matching their class, so that expected outcomes stay off the ERROR log.
+ */
+public final class SMExceptionLogging {
+
+    private SMExceptionLogging() {}
+
+    /**
+     * Not-found and validation errors are logged at DEBUG, throttling and transient errors at WARN without stack trace,
+     * everything else at ERROR with its stack trace.
+     *
+     * @param logger logger of the calling service
+     * @param e exception to log
+     * @return {@code e}, so that callers can write {@code throw log(LOGGER, e)}
+     */
+    public static <E extends SMServiceException> E log(Logger logger, E e) {
+        if (e instanceof SMSecretNotFoundException || e instanceof SMValidationException) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} {}", keyValue("errorCode", e.getErrorCode()), e.getMessage());
+            }
+        } else if (e.isRetryable()) {
+            logger.warn("{} {}", keyValue("errorCode", e.getErrorCode()), e.getMessage());
+        } else {
+            logger.error(e.getMessage(), e);
+        }
+        return e;
+    }
+}
@@ -0,0 +1,17 @@
+package edu.common.exception;
+
+/**
+ * The secret does not exist (or is scheduled for deletion). This is an expected outcome, so no stack trace is captured.
+ */
+public class SMSecretNotFoundException extends SMServiceException {
+
+    public static final String ERROR_CODE = "ResourceNotFoundException";
+
+    public SMSecretNotFoundException(String message) {
+        this(message, null, ERROR_CODE);
+    }
+
+    public SMSecretNotFoundException(String message, Throwable cause, String errorCode) {
+        super(message, cause, errorCode, false, false);
+    }
+}
@@ -1,6 +1,19 @@
 package edu.common.exception;
 
+/**
+ * Base of the errors raised by {@link edu.common.ISecretManagerService} implementations.
+ * <p>
+ * Subclasses classify the failure; {@link #getErrorCode()} carries the backend error code (the AWS error code for the
+ * AWS backends) and {@link #isRetryable()} tells whether the same call may succeed if tried again.
+ */
 public class SMServiceException extends RuntimeException {
+
+    public static final String UNKNOWN_ERROR_CODE = "Unknown";
+
+    private final String errorCode;
+
+    private final boolean retryable;
+
     /**
      * Constructs a new runtime exception with {@code null} as its
      * detail message.  The cause is not initialized, and may subsequently be
@@ -8,6 +21,8 @@ public class SMServiceException extends RuntimeException {
      */
     public SMServiceException() {
         super();
+        this.errorCode = UNKNOWN_ERROR_CODE;
+        this.retryable = false;
     }
 
     /**
@@ -20,6 +35,8 @@ public class SMServiceException extends RuntimeException {
      */
     public SMServiceException(String message) {
         super(message);
+        this.errorCode = UNKNOWN_ERROR_CODE;
+        this.retryable = false;
     }
 
     /**
@@ -38,6 +55,8 @@ public class SMServiceException extends RuntimeException {
      */
     public SMServiceException(String message, Throwable cause) {
         super(message, cause);
+        this.errorCode = UNKNOWN_ERROR_CODE;
+        this.retryable = false;
     }
 
     /**
@@ -55,5 +74,48 @@ public class SMServiceException extends RuntimeException {
      */
     public SMServiceException(Throwable cause) {
         super(cause);
+        this.errorCode = UNKNOWN_ERROR_CODE;
+        this.retryable = false;
+    }
+
+    /**
+     * Constructs a classified exception.
+     *
+     * @param  message the detail message.
+     * @param  cause the cause, may be {@code null}.
+     * @param  errorCode the backend error code.
+     * @param  retryable whether the failed call may succeed if tried again.
+     * @param  writableStackTrace {@code false} for expected outcomes, so that
+     *         no stack trace is captured.
+     */
+    protected SMServiceException(String message, Throwable cause, String errorCode, boolean retryable, boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+        this.errorCode = errorCode == null ? UNKNOWN_ERROR_CODE : errorCode;
+        this.retryable = retryable;
+    }
+
+    /**
+     * Constructs an unclassified exception carrying a backend error code.
+     *
+     * @param  message the detail message.
+     * @param  cause the cause, may be {@code null}.
+     * @param  errorCode the backend error code.
+     */
+    public SMServiceException(String message, Throwable cause, String errorCode) {
+        this(message, cause, errorCode, false, true);
+    }
+
+    /**
+     * @return the backend error code, {@link #UNKNOWN_ERROR_CODE} when the failure was not classified.
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return true if the same call may succeed if tried again.
+     */
+    public boolean isRetryable() {
+        return retryable;
     }
 }
@@ -0,0 +1,18 @@
+package edu.common.exception;
+
+/**
+ * The request was rejected because the request rate is too high. Retryable after backing off; no stack trace is
+ * captured since this is expected under load.
+ */
+public class SMThrottledException extends SMServiceException {
+
+    public static final String ERROR_CODE = "ThrottlingException";
+
+    public SMThrottledException(String message) {
+        this(message, null, ERROR_CODE);
+    }
+
+    public SMThrottledException(String message, Throwable cause, String errorCode) {
+        super(message, cause, errorCode, true, false);
+    }
+}
@@ -0,0 +1,17 @@
+package edu.common.exception;
+
+/**
+ * Temporary failure of the backend or of the connection to it (server error, timeout, I/O error). Retryable.
+ */
+public class SMTransientException extends SMServiceException {
+
+    public static final String ERROR_CODE = "InternalServiceError";
+
+    public SMTransientException(String message) {
+        this(message, null, ERROR_CODE);
+    }
+
+    public SMTransientException(String message, Throwable cause, String errorCode) {
+        super(message, cause, errorCode, true, true);
+    }
+}
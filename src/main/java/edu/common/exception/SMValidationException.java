@@ -0,0 +1,23 @@
+package edu.common.exception;
+
+/**
+ * The backend rejected the request: invalid parameter, secret already exists, operation not allowed in the
+ * current state of the secret.
+ */
+public class SMValidationException extends SMServiceException {
+
+    public static final String ERROR_CODE = "InvalidRequestException";
+
+    public static final String RESOURCE_EXISTS_ERROR_CODE = "ResourceExistsException";
+
+    /** The secret has no string value: blank, or only a binary value */
+    public static final String BLANK_VALUE_ERROR_CODE = "BlankSecretValue";
+
+    public SMValidationException(String message) {
+        this(message, null, ERROR_CODE);
+    }
+
+    public SMValidationException(String message, Throwable cause, String errorCode) {
+        super(message, cause, errorCode, false, true);
+    }
+}
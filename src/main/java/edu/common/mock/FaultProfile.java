@@ -0,0 +1,179 @@
+package edu.common.mock;
+
+import edu.common.SecretOperation;
+import edu.common.exception.SMThrottledException;
+import edu.common.exception.SMTransientException;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and failures injected into the calls of {@link MockSMService}, to exercise timeouts, retries and fallbacks
+ * without the real service.
+ * <p>
+ * Every call first waits for the latency of its operation, then fails if it falls in an outage window
+ * ({@link SMTransientException} with {@link #SERVICE_UNAVAILABLE_ERROR_CODE}), or with probability
+ * {@code throttleRate} ({@link SMThrottledException}) or {@code transientErrorRate} ({@link SMTransientException}).
+ * <p>
+ * Random draws depend only on the seed, the operation, the secret ID and how many times that operation was called on
+ * that secret, so the same calls get the same latencies and failures on every run, whatever the thread interleaving.
+ * Outage windows are relative to the time the profile was attached with {@link MockSMService#setFaultProfile}.
+ * Configure the profile before attaching it.
+ */
+public class FaultProfile {
+
+    public static final String SERVICE_UNAVAILABLE_ERROR_CODE = "ServiceUnavailable";
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+
+    private final Map<SecretOperation, LatencyDistribution> latencies = new EnumMap<>(SecretOperation.class);
+
+    private double throttleRate;
+
+    private double transientErrorRate;
+
+    private final List<long[]> outages = new CopyOnWriteArrayList<>();
+
+    private final ConcurrentMap<String, AtomicLong> calls = new ConcurrentHashMap<>();
+
+    private volatile long startNanos = System.nanoTime();
+
+    private final LongAdder throttled = new LongAdder();
+
+    private final LongAdder transientErrors = new LongAdder();
+
+    private final LongAdder outageErrors = new LongAdder();
+
+    private final LongAdder injectedLatencyNanos = new LongAdder();
+
+    public FaultProfile(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the latency of every operation.
+     */
+    public FaultProfile latency(LatencyDistribution latency) {
+        for (SecretOperation operation : SecretOperation.values()) {
+            latency(operation, latency);
+        }
+        return this;
+    }
+
+    public FaultProfile latency(SecretOperation operation, LatencyDistribution latency) {
+        Assert.notNull(operation, "Operation cannot be null");
+        Assert.notNull(latency, "Latency cannot be null");
+        latencies.put(operation, latency);
+        return this;
+    }
+
+    /**
+     * @param throttleRate share of the calls failing with {@link SMThrottledException}, between 0 and 1
+     */
+    public FaultProfile throttleRate(double throttleRate) {
+        Assert.isTrue(throttleRate >= 0 && throttleRate <= 1, "Throttle rate must be between 0 and 1");
+        this.throttleRate = throttleRate;
+        return this;
+    }
+
+    /**
+     * @param transientErrorRate share of the calls failing with {@link SMTransientException}, between 0 and 1
+     */
+    public FaultProfile transientErrorRate(double transientErrorRate) {
+        Assert.isTrue(transientErrorRate >= 0 && transientErrorRate <= 1, "Transient error rate must be between 0 and 1");
+        this.transientErrorRate = transientErrorRate;
+        return this;
+    }
+
+    /**
+     * Makes every call fail during {@code duration}, starting {@code start} after the profile is attached.
+     */
+    public FaultProfile outage(Duration start, Duration duration) {
+        Assert.isTrue(start != null && !start.isNegative(), "Outage start cannot be null or negative");
+        Assert.isTrue(duration != null && !duration.isNegative(), "Outage duration cannot be null or negative");
+        outages.add(new long[] {start.toNanos(), start.toNanos() + duration.toNanos()});
+        return this;
+    }
+
+    /**
+     * Restarts the outage clock and the call counts, so that the same calls get the same faults again.
+     */
+    public void reset() {
+        calls.clear();
+        throttled.reset();
+        transientErrors.reset();
+        outageErrors.reset();
+        injectedLatencyNanos.reset();
+        startNanos = System.nanoTime();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    public long getTransientErrorCount() {
+        return transientErrors.sum();
+    }
+
+    public long getOutageErrorCount() {
+        return outageErrors.sum();
+    }
+
+    public Duration getInjectedLatency() {
+        return Duration.ofNanos(injectedLatencyNanos.sum());
+    }
+
+    /**
+     * Delays the call, then throws the failure drawn for it, if any.
+     */
+    void inject(SecretOperation operation, String secretId) {
+        String key = operation.name() + ':' + secretId;
+        long call = calls.computeIfAbsent(key, k -> new AtomicLong()).getAndIncrement();
+        SplittableRandom random = new SplittableRandom((seed * GOLDEN_GAMMA + key.hashCode()) * GOLDEN_GAMMA + call);
+
+        long latency = latencies.getOrDefault(operation, LatencyDistribution.none()).sampleNanos(random);
+        if (latency > 0) {
+            injectedLatencyNanos.add(latency);
+            try {
+                TimeUnit.NANOSECONDS.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SMTransientException("Interrupted while waiting for the injected latency");
+            }
+        }
+
+        long elapsed = System.nanoTime() - startNanos;
+        for (long[] outage : outages) {
+            if (elapsed >= outage[0] && elapsed < outage[1]) {
+                outageErrors.increment();
+                throw new SMTransientException("Injected outage", null, SERVICE_UNAVAILABLE_ERROR_CODE);
+            }
+        }
+
+        double draw = random.nextDouble();
+        if (draw < throttleRate) {
+            throttled.increment();
+            throw new SMThrottledException("Injected throttling on " + operation + " " + secretId);
+        }
+        if (draw < throttleRate + transientErrorRate) {
+            transientErrors.increment();
+            throw new SMTransientException("Injected transient error on " + operation + " " + secretId);
+        }
+    }
+}
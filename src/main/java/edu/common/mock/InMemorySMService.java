@@ -0,0 +1,307 @@
+package edu.common.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.common.ISecretManagerService;
+import edu.common.SecretOperation;
+import edu.common.concurrent.SecretManagerExecutors;
+import edu.common.exception.SMSecretNotFoundException;
+import edu.common.exception.SMTransientException;
+import edu.common.exception.SMValidationException;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * {@link ISecretManagerService} keeping secrets in memory, for tests that need more throughput than
+ * {@link MockSMService} and no files left behind.
+ * <p>
+ * Validation and errors are the same as {@link MockSMService}. The map holds an immutable version of each secret:
+ * reads never lock and updates are compare-and-set loops on {@link ConcurrentMap#replace(Object, Object, Object)}, so
+ * callers never wait on each other ({@code InMemorySMServiceBenchmark} measures the throughput per thread count) and
+ * an update racing with a delete either fails with
+ * {@link SMSecretNotFoundException} or applies to the secret created again, never to a deleted one. Previous values
+ * are kept when {@code maxHistory} is positive. {@link #exportTo(String)} writes the
+ * secrets in the file format of {@link MockSMService}.
+ */
+public class InMemorySMService implements ISecretManagerService {
+
+    private final ConcurrentMap<String, SecretVersion> secrets = new ConcurrentHashMap<>();
+
+    private final int maxHistory;
+
+    private Executor executor;
+
+    private volatile FaultProfile faultProfile;
+
+    /**
+     * Immutable state of a secret.
+     */
+    private static class SecretVersion {
+        private final String value;
+        private final String description;
+        private final long version;
+        /** Previous values, most recent first */
+        private final List<String> history;
+
+        private SecretVersion(String value, String description, long version, List<String> history) {
+            this.value = value;
+            this.description = description;
+            this.version = version;
+            this.history = history;
+        }
+    }
+
+    /**
+     * Keeps no version history.
+     */
+    public InMemorySMService() {
+        this(0);
+    }
+
+    /**
+     * @param maxHistory number of previous values kept for each secret, 0 for none
+     */
+    public InMemorySMService(int maxHistory) {
+        Assert.isTrue(maxHistory >= 0, "Max history cannot be negative");
+        this.maxHistory = maxHistory;
+    }
+
+    @Override
+    public void createSecret(String secretId, String secretString) {
+        Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        Assert.isTrue(isNotBlank(secretString), "Secret Value cannot be blank");
+        injectFaults(SecretOperation.CREATE, secretId);
+
+        SecretVersion created = new SecretVersion(secretString, null, 1, Collections.emptyList());
+        if (secrets.putIfAbsent(secretId, created) != null) {
+            throw new SMValidationException("Secret with ID \"" + secretId + "\" already exists", null, SMValidationException.RESOURCE_EXISTS_ERROR_CODE);
+        }
+    }
+
+    /**
+     * Updates the Secret Description, keeping the value and version.
+     */
+    public void updateSecretDescription(String secretId, String secretDescription) {
+        Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        Assert.notNull(secretDescription, "Secret Description cannot be null but can be blank");
+        injectFaults(SecretOperation.UPDATE, secretId);
+
+        update(secretId, current -> new SecretVersion(current.value, secretDescription, current.version, current.history));
+    }
+
+    @Override
+    public void updateSecretValue(String secretId, String secretString) {
+        Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        Assert.isTrue(isNotBlank(secretString), "Secret Value cannot be blank");
+        injectFaults(SecretOperation.UPDATE, secretId);
+
+        update(secretId, current -> next(current, secretString));
+    }
+
+    /**
+     * Replaces the value of the secret only if it is still {@code expectedValue}.
+     *
+     * @param secretId Specifies the secret to update.
+     * @param expectedValue Value the secret must have for the update to happen.
+     * @param secretString New value.
+     * @return true if the value was replaced, false if the secret had another value
+     * @throws SMSecretNotFoundException if the secret does not exist
+     */
+    public boolean compareAndSetSecretValue(String secretId, String expectedValue, String secretString) {
+        Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        Assert.isTrue(isNotBlank(secretString), "Secret Value cannot be blank");
+        injectFaults(SecretOperation.UPDATE, secretId);
+
+        while (true) {
+            SecretVersion current = current(secretId);
+            if (!Objects.equals(current.value, expectedValue)) {
+                return false;
+            }
+            if (secrets.replace(secretId, current, next(current, secretString))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String getSecret(String secretId) {
+        Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        injectFaults(SecretOperation.GET, secretId);
+
+        return current(secretId).value;
+    }
+
+    /**
+     * @return Version number of the secret, 1 when created and incremented by every value update
+     */
+    public long getSecretVersion(String secretId) {
+        Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        return current(secretId).version;
+    }
+
+    /**
+     * @return Up to {@code maxHistory} previous values of the secret, most recent first
+     */
+    public List<String> getSecretHistory(String secretId) {
+        Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        return current(secretId).history;
+    }
+
+    public String getSecretDescription(String secretId) {
+        Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        return current(secretId).description;
+    }
+
+    /**
+     * Deletes the secret if it exists.
+     */
+    @Override
+    public void deleteSecret(String secretId) {
+        Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        injectFaults(SecretOperation.DELETE, secretId);
+
+        secrets.remove(secretId);
+    }
+
+    /**
+     * Same as {@link #deleteSecret(String)}: there is no recovery window.
+     * @param forceDeleteWithoutRecovery Ignored.
+     */
+    public void deleteSecret(String secretId, boolean forceDeleteWithoutRecovery) {
+        deleteSecret(secretId);
+    }
+
+    /**
+     * Lists the secret IDs starting with {@code nameFilter}, ignoring case, in no particular order. The listing is weakly consistent:
+     * it never fails on concurrent changes, and may or may not show them.
+     */
+    @Override
+    public Stream<String> listSecrets(String nameFilter) {
+        String prefix = StringUtils.isBlank(nameFilter) ? "" : nameFilter;
+        return secrets.keySet().stream().filter(secretId -> StringUtils.startsWithIgnoreCase(secretId, prefix));
+    }
+
+    /**
+     * @return Number of secrets stored
+     */
+    public int size() {
+        return secrets.size();
+    }
+
+    /**
+     * Deletes every secret.
+     */
+    public void clear() {
+        secrets.clear();
+    }
+
+    /**
+     * Writes every secret to {@code targetDirectory} in the format of {@link MockSMService}, which can then read them.
+     * Existing files of the same secrets are replaced. Secrets changed during the export may be written with their
+     * old or new value.
+     *
+     * @return Number of secrets written
+     */
+    public int exportTo(String targetDirectory) {
+        Assert.isTrue(isNotBlank(targetDirectory), "Target Directory cannot be blank");
+        String directory = targetDirectory.endsWith("/") ? targetDirectory : targetDirectory + "/";
+        ObjectMapper mapper = new ObjectMapper();
+
+        int written = 0;
+        for (Map.Entry<String, SecretVersion> secret : secrets.entrySet()) {
+            SecretVersion version = secret.getValue();
+            MockSMService.MockSecretFile content = new MockSMService.MockSecretFile();
+            content.setSecretContent(version.value);
+            content.setSecretDescription(version.description);
+            try {
+                FileUtils.writeStringToFile(new File(directory + secret.getKey() + MockSMService.FILE_EXTENSION_TYPE),
+                        mapper.writeValueAsString(content), Charset.defaultCharset(), false);
+            } catch (IOException e) {
+                throw new SMTransientException("Could not export Secret File: " + e.getLocalizedMessage(), e, SMTransientException.ERROR_CODE);
+            }
+            written++;
+        }
+        return written;
+    }
+
+    public FaultProfile getFaultProfile() {
+        return faultProfile;
+    }
+
+    /**
+     * Same as {@link MockSMService#setFaultProfile(FaultProfile)}.
+     */
+    public void setFaultProfile(FaultProfile faultProfile) {
+        if (faultProfile != null) {
+            faultProfile.reset();
+        }
+        this.faultProfile = faultProfile;
+    }
+
+    /**
+     * Executor used for batch fetches and async calls. Defaults to {@link SecretManagerExecutors#defaultExecutor()}.
+     */
+    @Override
+    public Executor getExecutor() {
+        return executor != null ? executor : SecretManagerExecutors.defaultExecutor();
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    private SecretVersion current(String secretId) {
+        SecretVersion secret = secrets.get(secretId);
+        if (secret == null) {
+            throw new SMSecretNotFoundException("There is no Secret with ID: " + secretId);
+        }
+        return secret;
+    }
+
+    /**
+     * Applies {@code change} to the version still in the map; versions are compared by identity, so a secret deleted
+     * and created again is never overwritten with a change computed from its previous version.
+     */
+    private void update(String secretId, UnaryOperator<SecretVersion> change) {
+        while (true) {
+            SecretVersion current = current(secretId);
+            if (secrets.replace(secretId, current, change.apply(current))) {
+                return;
+            }
+        }
+    }
+
+    private SecretVersion next(SecretVersion current, String value) {
+        List<String> history = current.history;
+        if (maxHistory > 0) {
+            List<String> updated = new ArrayList<>(Math.min(history.size() + 1, maxHistory));
+            updated.add(current.value);
+            updated.addAll(history.subList(0, Math.min(history.size(), maxHistory - 1)));
+            history = Collections.unmodifiableList(updated);
+        }
+        return new SecretVersion(value, current.description, current.version + 1, history);
+    }
+
+    private void injectFaults(SecretOperation operation, String secretId) {
+        FaultProfile profile = faultProfile;
+        if (profile != null) {
+            profile.inject(operation, secretId);
+        }
+    }
+}
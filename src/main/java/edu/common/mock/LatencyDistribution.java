@@ -0,0 +1,56 @@
+package edu.common.mock;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Latency added to the calls of {@link MockSMService} by a {@link FaultProfile}.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * @param random source of randomness of the call, derived from the seed of the profile
+     * @return Latency of the call, in nanoseconds
+     */
+    long sampleNanos(SplittableRandom random);
+
+    static LatencyDistribution none() {
+        return random -> 0;
+    }
+
+    static LatencyDistribution fixed(Duration latency) {
+        Assert.isTrue(latency != null && !latency.isNegative(), "Latency cannot be null or negative");
+        long nanos = latency.toNanos();
+        return random -> nanos;
+    }
+
+    /**
+     * Latency evenly spread between {@code min} and {@code max}.
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        Assert.isTrue(min != null && !min.isNegative(), "Min latency cannot be null or negative");
+        Assert.isTrue(max != null && max.compareTo(min) >= 0, "Max latency cannot be null or lower than min latency");
+        long minNanos = min.toNanos();
+        long spread = max.toNanos() - minNanos;
+        return random -> minNanos + (spread == 0 ? 0 : random.nextLong(spread + 1));
+    }
+
+    /**
+     * Log-normal latency, the usual shape of network calls: most calls close to {@code median}, with a long tail.
+     * @param median latency of half the calls
+     * @param sigma standard deviation of the logarithm of the latency, 0.5 gives a p99 of about 3 times the median
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        Assert.isTrue(median != null && !median.isNegative(), "Median latency cannot be null or negative");
+        Assert.isTrue(sigma >= 0, "Sigma cannot be negative");
+        double medianNanos = median.toNanos();
+        return random -> {
+            // Box-Muller transform of two uniform samples into a standard normal one
+            double normal = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+            return (long) (medianNanos * Math.exp(sigma * normal));
+        };
+    }
+}
@@ -1,8 +1,15 @@
 package edu.common.mock;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.common.exception.SMSecretNotFoundException;
 import edu.common.exception.SMServiceException;
+import edu.common.exception.SMTransientException;
+import edu.common.exception.SMValidationException;
 import edu.common.ISecretManagerService;
+import edu.common.SecretOperation;
+import edu.common.bulk.BulkOperationResult;
+import edu.common.concurrent.SecretManagerExecutors;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +19,14 @@ import org.springframework.util.StopWatch;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static net.logstash.logback.argument.StructuredArguments.keyValue;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
@@ -22,10 +37,14 @@ public class MockSMService implements ISecretManagerService {
 
     private String targetDirectory;
 
-    private static final String FILE_EXTENSION_TYPE = ".json";
+    static final String FILE_EXTENSION_TYPE = ".json";
 
     private ObjectMapper mapper;
 
+    private Executor executor;
+
+    private volatile FaultProfile faultProfile;
+
     /**
      * Class for Reading and Writing a Mock File. Is Static so {@link ObjectMapper#readValue} works.
      */
@@ -81,6 +100,7 @@ public class MockSMService implements ISecretManagerService {
         StopWatch stopWatch = new StopWatch();
         Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
         Assert.isTrue(isNotBlank(secretString), "Secret Value cannot be blank");
+        injectFaults(SecretOperation.CREATE, secretId);
 
         try {
             if (LOGGER.isDebugEnabled()) {
@@ -88,7 +108,9 @@ public class MockSMService implements ISecretManagerService {
                 stopWatch.start();
             }
             File fileToCreate = new File(targetDirectory+secretId+FILE_EXTENSION_TYPE);
-            Assert.isTrue(!fileToCreate.exists(), "Secret with ID \"" + secretId + "\" already exists" );
+            if (fileToCreate.exists()) {
+                throw new SMValidationException("Secret with ID \"" + secretId + "\" already exists", null, SMValidationException.RESOURCE_EXISTS_ERROR_CODE);
+            }
 
             MockSecretFile content = new MockSecretFile();
             content.setSecretContent(secretString);
@@ -100,7 +122,7 @@ public class MockSMService implements ISecretManagerService {
                         keyValue("fileName", secretId), keyValue("location", targetDirectory), stopWatch.getTotalTimeMillis());
             }
         } catch (IOException e) {
-            throw new SMServiceException("Could not create Secret File: " + e.getLocalizedMessage(), e);
+            throw new SMTransientException("Could not create Secret File: " + e.getLocalizedMessage(), e, SMTransientException.ERROR_CODE);
         }
     }
 
@@ -116,6 +138,7 @@ public class MockSMService implements ISecretManagerService {
 
         Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
         Assert.notNull(secretDescription, "Secret Description cannot be null but can be blank");
+        injectFaults(SecretOperation.UPDATE, secretId);
 
         try {
             if (LOGGER.isDebugEnabled()) {
@@ -125,7 +148,9 @@ public class MockSMService implements ISecretManagerService {
 
             MockSecretFile contentToWrite;
             File existingSecret = new File(targetDirectory+secretId+FILE_EXTENSION_TYPE);
-            Assert.isTrue(existingSecret.exists(), "There is currently no Secret with ID: " + secretId);
+            if (!existingSecret.exists()) {
+                throw new SMSecretNotFoundException("There is currently no Secret with ID: " + secretId);
+            }
 
             contentToWrite = mapper.readValue(FileUtils.readFileToString(existingSecret, Charset.defaultCharset()), MockSecretFile.class);
             contentToWrite.setSecretDescription(secretDescription);
@@ -137,7 +162,7 @@ public class MockSMService implements ISecretManagerService {
                         keyValue("fileName", secretId), keyValue("location", targetDirectory), stopWatch.getTotalTimeMillis());
             }
         } catch (IOException e) {
-            throw new SMServiceException("Could not Update Secret File Descrpition: " + e.getLocalizedMessage(), e);
+            throw new SMTransientException("Could not Update Secret File Descrpition: " + e.getLocalizedMessage(), e, SMTransientException.ERROR_CODE);
         }
     }
 
@@ -152,6 +177,7 @@ public class MockSMService implements ISecretManagerService {
     public void updateSecretValue(String secretId, String secretString) {
         Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
         Assert.isTrue(isNotBlank(secretString), "Secret Value cannot be blank");
+        injectFaults(SecretOperation.UPDATE, secretId);
 
         StopWatch stopWatch = new StopWatch();
         try {
@@ -162,7 +188,9 @@ public class MockSMService implements ISecretManagerService {
 
             MockSecretFile contentToWrite;
             File existingSecret = new File(targetDirectory+secretId+FILE_EXTENSION_TYPE);
-            Assert.isTrue(existingSecret.exists(), "There is currently no Secret with ID: " + secretId);
+            if (!existingSecret.exists()) {
+                throw new SMSecretNotFoundException("There is currently no Secret with ID: " + secretId);
+            }
 
             contentToWrite = mapper.readValue(FileUtils.readFileToString(existingSecret, Charset.defaultCharset()), MockSecretFile.class);
             contentToWrite.setSecretContent(secretString);
@@ -174,7 +202,7 @@ public class MockSMService implements ISecretManagerService {
                         keyValue("fileName", secretId), keyValue("location", targetDirectory), stopWatch.getTotalTimeMillis());
             }
         } catch (IOException e) {
-            throw new SMServiceException("Could not Update Secret File: " + e.getLocalizedMessage(), e);
+            throw new SMTransientException("Could not Update Secret File: " + e.getLocalizedMessage(), e, SMTransientException.ERROR_CODE);
         }
     }
 
@@ -188,14 +216,37 @@ public class MockSMService implements ISecretManagerService {
     @Override
     public String getSecret(String secretId) {
         Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        injectFaults(SecretOperation.GET, secretId);
+
+        File secretFile = new File(targetDirectory+secretId+ FILE_EXTENSION_TYPE);
+        if (!secretFile.isFile()) {
+            throw new SMSecretNotFoundException("There is no Secret with ID: " + secretId);
+        }
 
         try {
-            return mapper.readValue(FileUtils.readFileToString(new File(targetDirectory+secretId+ FILE_EXTENSION_TYPE), Charset.defaultCharset()), MockSecretFile.class).getSecretContent();
-        }catch (IOException e) {
-            throw new IllegalArgumentException("There is no Secret with ID: " + secretId);
+            return mapper.readValue(FileUtils.readFileToString(secretFile, Charset.defaultCharset()), MockSecretFile.class).getSecretContent();
+        } catch (JsonProcessingException e) {
+            // the file is corrupt, reading it again will not help
+            throw new SMServiceException("Could not parse Secret File: " + e.getLocalizedMessage(), e);
+        } catch (IOException e) {
+            throw new SMTransientException("Could not read Secret File: " + e.getLocalizedMessage(), e, SMTransientException.ERROR_CODE);
         }
     }
 
+    /**
+     * Lists the Secret Files lazily, one directory entry at a time.
+     *
+     * @param nameFilter Only lists the secrets whose ID starts with this value, ignoring case; {@code null} or blank
+     *                   lists all of them.
+     * @return Secret IDs, in directory order; close the stream to release the open directory handles
+     */
+    @Override
+    public Stream<String> listSecrets(String nameFilter) {
+        SecretFileIterator secretFiles = new SecretFileIterator(Paths.get(targetDirectory), FILE_EXTENSION_TYPE, nameFilter);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(secretFiles, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(secretFiles::close);
+    }
+
     /**
      * If Secret File and/or Secret Description File exists, they are deleted
      * @param secretId Specifies the secret containing the version that you want to retrieve.
@@ -203,10 +254,31 @@ public class MockSMService implements ISecretManagerService {
     @Override
     public void deleteSecret(String secretId) {
         Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        injectFaults(SecretOperation.DELETE, secretId);
 
         FileUtils.deleteQuietly(new File(targetDirectory +secretId+ FILE_EXTENSION_TYPE));
     }
 
+    /**
+     * Same as {@link #deleteSecret(String)}: files are always deleted immediately, there is no recovery window.
+     * @param secretId Specifies the secret to delete.
+     * @param forceDeleteWithoutRecovery Ignored.
+     */
+    public void deleteSecret(String secretId, boolean forceDeleteWithoutRecovery) {
+        deleteSecret(secretId);
+    }
+
+    /**
+     * Same as {@link #deleteSecrets(Collection)}, for parity with {@code AWSSecretManagerService}.
+     *
+     * @param secretIds IDs of the secrets
+     * @param forceDeleteWithoutRecovery Ignored, see {@link #deleteSecret(String, boolean)}.
+     * @return One result per secret; a failed item does not stop the others
+     */
+    public Map<String, BulkOperationResult> deleteSecrets(Collection<String> secretIds, boolean forceDeleteWithoutRecovery) {
+        return deleteSecrets(secretIds);
+    }
+
     public String getTargetDirectory() {
         return targetDirectory;
     }
@@ -214,4 +286,38 @@ public class MockSMService implements ISecretManagerService {
     public void setTargetDirectory(String targetDirectory) {
         this.targetDirectory = targetDirectory;
     }
+
+    /**
+     * Executor used for batch fetches and async calls. Defaults to {@link SecretManagerExecutors#defaultExecutor()}.
+     */
+    @Override
+    public Executor getExecutor() {
+        return executor != null ? executor : SecretManagerExecutors.defaultExecutor();
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public FaultProfile getFaultProfile() {
+        return faultProfile;
+    }
+
+    /**
+     * Injects the latency and failures of {@code faultProfile} into every call, {@code null} to answer normally again.
+     * The outage windows of the profile start now.
+     */
+    public void setFaultProfile(FaultProfile faultProfile) {
+        if (faultProfile != null) {
+            faultProfile.reset();
+        }
+        this.faultProfile = faultProfile;
+    }
+
+    private void injectFaults(SecretOperation operation, String secretId) {
+        FaultProfile profile = faultProfile;
+        if (profile != null) {
+            profile.inject(operation, secretId);
+        }
+    }
 }
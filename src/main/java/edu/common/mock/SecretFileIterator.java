@@ -0,0 +1,112 @@
+package edu.common.mock;
+
+import edu.common.exception.SMTransientException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks the secret files of a {@link MockSMService} directory with one {@link DirectoryStream} per directory, so that
+ * entries are read as they are consumed rather than listed up front. Secret IDs containing {@code /} are stored in
+ * sub-directories, which are only entered when they can hold IDs starting with the name filter (ignoring case).
+ */
+class SecretFileIterator implements Iterator<String>, Closeable {
+
+    private static class Level {
+        private final DirectoryStream<Path> stream;
+        private final Iterator<Path> entries;
+        private final String idPrefix;
+
+        private Level(DirectoryStream<Path> stream, String idPrefix) {
+            this.stream = stream;
+            this.entries = stream.iterator();
+            this.idPrefix = idPrefix;
+        }
+    }
+
+    private final String nameFilter;
+
+    private final String extension;
+
+    private final Deque<Level> levels = new ArrayDeque<>();
+
+    private String next;
+
+    SecretFileIterator(Path root, String extension, String nameFilter) {
+        this.nameFilter = StringUtils.isBlank(nameFilter) ? "" : nameFilter;
+        this.extension = extension;
+        open(root, "");
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !levels.isEmpty()) {
+            Level level = levels.peek();
+            if (!level.entries.hasNext()) {
+                closeQuietly(levels.pop());
+                continue;
+            }
+
+            Path entry = level.entries.next();
+            String name = entry.getFileName().toString();
+            if (Files.isDirectory(entry)) {
+                String idPrefix = level.idPrefix + name + "/";
+                if (StringUtils.startsWithIgnoreCase(idPrefix, nameFilter) || StringUtils.startsWithIgnoreCase(nameFilter, idPrefix)) {
+                    open(entry, idPrefix);
+                }
+            } else if (name.endsWith(extension)) {
+                String secretId = level.idPrefix + name.substring(0, name.length() - extension.length());
+                if (StringUtils.startsWithIgnoreCase(secretId, nameFilter)) {
+                    next = secretId;
+                }
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String secretId = next;
+        next = null;
+        return secretId;
+    }
+
+    @Override
+    public void close() {
+        while (!levels.isEmpty()) {
+            closeQuietly(levels.pop());
+        }
+        next = null;
+    }
+
+    private void open(Path directory, String idPrefix) {
+        try {
+            levels.push(new Level(Files.newDirectoryStream(directory), idPrefix));
+        } catch (NoSuchFileException e) {
+            // nothing stored yet
+        } catch (IOException e) {
+            close();
+            throw new SMTransientException("Could not list Secret Files: " + e.getLocalizedMessage(), e, SMTransientException.ERROR_CODE);
+        }
+    }
+
+    private static void closeQuietly(Level level) {
+        try {
+            level.stream.close();
+        } catch (IOException e) {
+            // only a read handle, nothing to recover
+        }
+    }
+}
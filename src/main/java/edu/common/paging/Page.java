@@ -0,0 +1,35 @@
+package edu.common.paging;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a paginated listing.
+ */
+public class Page<T> {
+
+    private final List<T> items;
+
+    private final String nextToken;
+
+    /**
+     * @param items items of the page, possibly empty
+     * @param nextToken token of the next page, {@code null} on the last page
+     */
+    public Page(List<T> items, String nextToken) {
+        this.items = items == null ? Collections.emptyList() : items;
+        this.nextToken = nextToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean isLast() {
+        return nextToken == null;
+    }
+}
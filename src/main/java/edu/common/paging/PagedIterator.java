@@ -0,0 +1,130 @@
+package edu.common.paging;
+
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over a paginated listing, fetching each page only when the previous one has been consumed.
+ * <p>
+ * With a prefetch executor, the next page is requested in the background as soon as a page is handed out, so that
+ * it is usually there by the time the consumer needs it; at most one page is fetched ahead. {@link #close()} stops
+ * the iteration and drops the page being prefetched. Like any iterator, instances are not thread-safe.
+ */
+public class PagedIterator<T> implements Iterator<T>, Closeable {
+
+    /**
+     * Fetches the page following {@code nextToken}, the first page for {@code null}.
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        Page<T> fetch(String nextToken);
+    }
+
+    private final PageFetcher<T> fetcher;
+
+    private final Executor prefetchExecutor;
+
+    private Iterator<T> current = Collections.emptyIterator();
+
+    private String nextToken;
+
+    private boolean lastPage;
+
+    private CompletableFuture<Page<T>> prefetched;
+
+    private int pagesFetched;
+
+    private boolean closed;
+
+    /**
+     * @param fetcher call fetching one page
+     * @param prefetchExecutor executor prefetching the next page, {@code null} to fetch pages only on demand
+     */
+    public PagedIterator(PageFetcher<T> fetcher, Executor prefetchExecutor) {
+        Assert.notNull(fetcher, "Fetcher cannot be null");
+        this.fetcher = fetcher;
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!closed && !current.hasNext()) {
+            if (lastPage) {
+                return false;
+            }
+            Page<T> page = nextPage();
+            pagesFetched++;
+            current = page.getItems().iterator();
+            lastPage = page.isLast();
+            nextToken = page.getNextToken();
+            if (!lastPage && prefetchExecutor != null) {
+                String token = nextToken;
+                prefetched = CompletableFuture.supplyAsync(() -> fetcher.fetch(token), prefetchExecutor);
+            }
+        }
+        return !closed;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * @return Number of pages received so far, the one being prefetched excluded
+     */
+    public int getPagesFetched() {
+        return pagesFetched;
+    }
+
+    /**
+     * Stops the iteration; a page being prefetched is dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        current = Collections.emptyIterator();
+        if (prefetched != null) {
+            prefetched.cancel(false);
+            prefetched = null;
+        }
+    }
+
+    /**
+     * @return Sequential stream over the remaining items, closing this iterator when closed
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    private Page<T> nextPage() {
+        CompletableFuture<Page<T>> page = prefetched;
+        if (page == null) {
+            return fetcher.fetch(nextToken);
+        }
+        prefetched = null;
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
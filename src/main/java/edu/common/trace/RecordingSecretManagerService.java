@@ -0,0 +1,138 @@
+package edu.common.trace;
+
+import edu.common.ISecretManagerService;
+import edu.common.SecretOperation;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Records every call made through it into a {@link SecretTrace}, then forwards it to the delegate.
+ * <p>
+ * Secret IDs are not recorded: each ID is replaced by a salted SHA-256 hash, so a trace taken in production can be
+ * shared while still telling hot secrets from the long tail. Values are never recorded.
+ */
+public class RecordingSecretManagerService implements ISecretManagerService {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Hash bytes kept in a key; 8 bytes make collisions unlikely up to millions of secrets */
+    private static final int KEY_BYTES = 8;
+
+    private final ISecretManagerService delegate;
+
+    private final byte[] salt;
+
+    private final long startNanos = System.nanoTime();
+
+    private final Queue<TraceEvent> events = new ConcurrentLinkedQueue<>();
+
+    public RecordingSecretManagerService(ISecretManagerService delegate) {
+        this(delegate, "");
+    }
+
+    /**
+     * @param delegate service the calls are forwarded to
+     * @param salt mixed into the hash of the secret IDs, so that keys cannot be matched against known IDs
+     */
+    public RecordingSecretManagerService(ISecretManagerService delegate, String salt) {
+        Assert.notNull(delegate, "Delegate cannot be null");
+        Assert.notNull(salt, "Salt cannot be null");
+        this.delegate = delegate;
+        this.salt = salt.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void createSecret(String name, String secretString) {
+        record(SecretOperation.CREATE, name, () -> {
+            delegate.createSecret(name, secretString);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateSecretValue(String secretId, String secretString) {
+        record(SecretOperation.UPDATE, secretId, () -> {
+            delegate.updateSecretValue(secretId, secretString);
+            return null;
+        });
+    }
+
+    @Override
+    public String getSecret(String secretId) {
+        return record(SecretOperation.GET, secretId, () -> delegate.getSecret(secretId));
+    }
+
+    @Override
+    public void deleteSecret(String secretId) {
+        record(SecretOperation.DELETE, secretId, () -> {
+            delegate.deleteSecret(secretId);
+            return null;
+        });
+    }
+
+    @Override
+    public Stream<String> listSecrets(String nameFilter) {
+        return delegate.listSecrets(nameFilter);
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return delegate.getExecutor();
+    }
+
+    /**
+     * @return Calls recorded so far
+     */
+    public SecretTrace getTrace() {
+        return new SecretTrace(new ArrayList<>(events));
+    }
+
+    /**
+     * Forgets the calls recorded so far.
+     */
+    public void clear() {
+        events.clear();
+    }
+
+    /**
+     * @return Key recorded in place of {@code secretId}
+     */
+    public String hash(String secretId) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            byte[] hash = digest.digest(String.valueOf(secretId).getBytes(StandardCharsets.UTF_8));
+            char[] key = new char[KEY_BYTES * 2];
+            for (int i = 0; i < KEY_BYTES; i++) {
+                key[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+                key[i * 2 + 1] = HEX[hash[i] & 0xF];
+            }
+            return new String(key);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private <T> T record(SecretOperation operation, String secretId, Supplier<T> call) {
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            error = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long end = System.nanoTime();
+            events.add(new TraceEvent(start - startNanos, operation, hash(secretId), end - start, error));
+        }
+    }
+}
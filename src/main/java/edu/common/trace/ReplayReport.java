@@ -0,0 +1,209 @@
+package edu.common.trace;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.common.SecretOperation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a {@link TraceReplayer} run: throughput, latency percentiles and errors, overall and per operation.
+ * <p>
+ * {@link #writeTo(OutputStream)} and {@link #toJson()} give the report as JSON, for CI jobs and dashboards.
+ */
+@JsonPropertyOrder({"events", "speed", "wallClockMillis", "throughputPerSecond", "errors", "errorRate", "latencyMicros", "operations"})
+public class ReplayReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final double speed;
+
+    private final long wallClockNanos;
+
+    private final OperationReport total;
+
+    private final Map<SecretOperation, OperationReport> operations;
+
+    /**
+     * Calls, errors and latencies of one operation, or of all of them.
+     */
+    @JsonPropertyOrder({"count", "errors", "errorRate", "errorsByType", "latencyMicros"})
+    public static class OperationReport {
+        private final int count;
+        private final Map<String, Long> errorsByType;
+        private final LatencySummary latencyMicros;
+
+        OperationReport(long[] latencyNanos, Map<String, Long> errorsByType) {
+            this.count = latencyNanos.length;
+            this.errorsByType = Collections.unmodifiableMap(new TreeMap<>(errorsByType));
+            this.latencyMicros = new LatencySummary(latencyNanos);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errorsByType.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public double getErrorRate() {
+            return count == 0 ? 0 : (double) getErrors() / count;
+        }
+
+        /**
+         * @return Number of failed calls by simple class name of the exception
+         */
+        public Map<String, Long> getErrorsByType() {
+            return errorsByType;
+        }
+
+        public LatencySummary getLatencyMicros() {
+            return latencyMicros;
+        }
+    }
+
+    /**
+     * Latency percentiles, in microseconds.
+     */
+    @JsonPropertyOrder({"mean", "p50", "p90", "p99", "p999", "max"})
+    public static class LatencySummary {
+        private final long[] sortedMicros;
+
+        LatencySummary(long[] latencyNanos) {
+            sortedMicros = new long[latencyNanos.length];
+            for (int i = 0; i < latencyNanos.length; i++) {
+                sortedMicros[i] = TimeUnit.NANOSECONDS.toMicros(latencyNanos[i]);
+            }
+            Arrays.sort(sortedMicros);
+        }
+
+        /**
+         * @param quantile between 0 and 1
+         * @return Smallest latency greater than or equal to {@code quantile} of the calls, 0 without calls
+         */
+        public long percentile(double quantile) {
+            if (sortedMicros.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sortedMicros.length) - 1;
+            return sortedMicros[Math.max(0, Math.min(index, sortedMicros.length - 1))];
+        }
+
+        public double getMean() {
+            return Arrays.stream(sortedMicros).average().orElse(0);
+        }
+
+        public long getP50() {
+            return percentile(0.5);
+        }
+
+        public long getP90() {
+            return percentile(0.9);
+        }
+
+        public long getP99() {
+            return percentile(0.99);
+        }
+
+        public long getP999() {
+            return percentile(0.999);
+        }
+
+        public long getMax() {
+            return percentile(1);
+        }
+    }
+
+    ReplayReport(double speed, long wallClockNanos, Map<SecretOperation, long[]> latencyNanos,
+                 Map<SecretOperation, Map<String, Long>> errorsByType) {
+        this.speed = speed;
+        this.wallClockNanos = wallClockNanos;
+
+        Map<SecretOperation, OperationReport> reports = new EnumMap<>(SecretOperation.class);
+        long[] allLatencies = new long[0];
+        Map<String, Long> allErrors = new TreeMap<>();
+        for (Map.Entry<SecretOperation, long[]> entry : latencyNanos.entrySet()) {
+            Map<String, Long> errors = errorsByType.getOrDefault(entry.getKey(), Collections.emptyMap());
+            reports.put(entry.getKey(), new OperationReport(entry.getValue(), errors));
+
+            long[] merged = Arrays.copyOf(allLatencies, allLatencies.length + entry.getValue().length);
+            System.arraycopy(entry.getValue(), 0, merged, allLatencies.length, entry.getValue().length);
+            allLatencies = merged;
+            errors.forEach((type, count) -> allErrors.merge(type, count, Long::sum));
+        }
+        this.operations = Collections.unmodifiableMap(reports);
+        this.total = new OperationReport(allLatencies, allErrors);
+    }
+
+    public int getEvents() {
+        return total.getCount();
+    }
+
+    /**
+     * @return Speed factor the trace was replayed at
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    public long getWallClockMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(wallClockNanos);
+    }
+
+    /**
+     * @return Calls completed per second of wall clock time
+     */
+    public double getThroughputPerSecond() {
+        return wallClockNanos == 0 ? 0 : total.getCount() * 1_000_000_000d / wallClockNanos;
+    }
+
+    public long getErrors() {
+        return total.getErrors();
+    }
+
+    public double getErrorRate() {
+        return total.getErrorRate();
+    }
+
+    /**
+     * @return Latency of all calls, measured from the time each call was due so that queueing delays are included
+     */
+    public LatencySummary getLatencyMicros() {
+        return total.getLatencyMicros();
+    }
+
+    public Map<SecretOperation, OperationReport> getOperations() {
+        return operations;
+    }
+
+    /**
+     * Writes the report as JSON. The stream is not closed.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        MAPPER.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, this);
+    }
+
+    public String toJson() {
+        try {
+            return MAPPER.writeValueAsString(this);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
@@ -0,0 +1,84 @@
+package edu.common.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.util.Assert;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Calls made on an {@link edu.common.ISecretManagerService}, ordered by start time.
+ * <p>
+ * Traces are stored as JSON lines, one {@link TraceEvent} per line, so that they can be streamed, concatenated and
+ * processed with standard tools.
+ */
+public class SecretTrace {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<TraceEvent> events;
+
+    public SecretTrace(List<TraceEvent> events) {
+        Assert.notNull(events, "Events cannot be null");
+        List<TraceEvent> sorted = new ArrayList<>(events);
+        sorted.sort(Comparator.comparingLong(TraceEvent::getOffsetNanos));
+        this.events = Collections.unmodifiableList(sorted);
+    }
+
+    public List<TraceEvent> getEvents() {
+        return events;
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * @return Offset of the last event, in nanoseconds
+     */
+    public long getDurationNanos() {
+        return events.isEmpty() ? 0 : events.get(events.size() - 1).getOffsetNanos();
+    }
+
+    /**
+     * Writes the trace as JSON lines. The stream is not closed.
+     */
+    public void write(OutputStream out) throws IOException {
+        ObjectWriter writer = MAPPER.writerFor(TraceEvent.class);
+        Writer lines = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        for (TraceEvent event : events) {
+            lines.write(writer.writeValueAsString(event));
+            lines.write('\n');
+        }
+        lines.flush();
+    }
+
+    /**
+     * Reads a trace written by {@link #write(OutputStream)}. Blank lines are ignored. The stream is not closed.
+     */
+    public static SecretTrace read(InputStream in) throws IOException {
+        ObjectReader reader = MAPPER.readerFor(TraceEvent.class);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<TraceEvent> events = new ArrayList<>();
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (!line.trim().isEmpty()) {
+                events.add(reader.readValue(line));
+            }
+        }
+        return new SecretTrace(events);
+    }
+}
@@ -0,0 +1,68 @@
+package edu.common.trace;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import edu.common.SecretOperation;
+
+/**
+ * One call of a {@link SecretTrace}: when it started, what it did and on which (hashed) secret.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TraceEvent {
+
+    private final long offsetNanos;
+
+    private final SecretOperation operation;
+
+    private final String key;
+
+    private final long durationNanos;
+
+    private final String error;
+
+    /**
+     * @param offsetNanos start of the call, relative to the start of the trace
+     * @param operation operation called
+     * @param key opaque secret key, the same for every call on the same secret
+     * @param durationNanos duration of the call when recorded, 0 for generated events
+     * @param error simple class name of the exception of a failed call, {@code null} on success
+     */
+    @JsonCreator
+    public TraceEvent(@JsonProperty("offsetNanos") long offsetNanos,
+                      @JsonProperty("operation") SecretOperation operation,
+                      @JsonProperty("key") String key,
+                      @JsonProperty("durationNanos") long durationNanos,
+                      @JsonProperty("error") String error) {
+        this.offsetNanos = offsetNanos;
+        this.operation = operation;
+        this.key = key;
+        this.durationNanos = durationNanos;
+        this.error = error;
+    }
+
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public SecretOperation getOperation() {
+        return operation;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return offsetNanos + " " + operation + " " + key + (error == null ? "" : " " + error);
+    }
+}
@@ -0,0 +1,190 @@
+package edu.common.trace;
+
+import edu.common.ISecretManagerService;
+import edu.common.SecretOperation;
+import edu.common.exception.SMValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+
+/**
+ * Replays a {@link SecretTrace} against any {@link ISecretManagerService} and reports how it coped.
+ * <p>
+ * Calls are issued at the offsets of the trace divided by {@code speed}, whether or not earlier calls have completed
+ * (open loop), on {@link #getExecutor()}. Latencies are measured from the time a call was due, so a target that falls
+ * behind shows it in the percentiles instead of silently slowing the replay down. Trace keys are used as secret IDs,
+ * behind {@link #getSecretIdPrefix()}, and updates write fresh dummy values.
+ */
+public class TraceReplayer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TraceReplayer.class);
+
+    public static final String DEFAULT_SECRET_ID_PREFIX = "trace/";
+
+    private final ISecretManagerService target;
+
+    private String secretIdPrefix = DEFAULT_SECRET_ID_PREFIX;
+
+    private Executor executor;
+
+    private final AtomicLong values = new AtomicLong();
+
+    public TraceReplayer(ISecretManagerService target) {
+        Assert.notNull(target, "Target cannot be null");
+        this.target = target;
+    }
+
+    /**
+     * Creates the secrets the trace uses before creating them itself, so that its reads and updates find them.
+     * Secrets that already exist are left alone.
+     */
+    public void prepare(SecretTrace trace) {
+        Set<String> seen = new LinkedHashSet<>();
+        for (TraceEvent event : trace.getEvents()) {
+            if (seen.add(event.getKey()) && event.getOperation() != SecretOperation.CREATE) {
+                try {
+                    target.createSecret(secretId(event.getKey()), nextValue());
+                } catch (SMValidationException e) {
+                    LOGGER.debug("Secret {} already exists", keyValue("secretId", secretId(event.getKey())));
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes every secret the trace uses.
+     */
+    public void cleanup(SecretTrace trace) {
+        Set<String> keys = new LinkedHashSet<>();
+        trace.getEvents().forEach(event -> keys.add(event.getKey()));
+        for (String key : keys) {
+            try {
+                target.deleteSecret(secretId(key));
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not delete {}: {}", keyValue("secretId", secretId(key)), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * {@link #prepare(SecretTrace) Prepares} the target, then replays the trace and waits for every call.
+     *
+     * @param trace calls to make
+     * @param speed speed factor, 2 replays the trace in half its duration
+     * @return Throughput, latencies and errors of the replay
+     */
+    public ReplayReport replay(SecretTrace trace, double speed) {
+        Assert.notNull(trace, "Trace cannot be null");
+        Assert.isTrue(speed > 0, "Speed must be positive");
+        prepare(trace);
+
+        Map<SecretOperation, long[]> latencies = new EnumMap<>(SecretOperation.class);
+        Map<SecretOperation, AtomicInteger> recorded = new EnumMap<>(SecretOperation.class);
+        Map<SecretOperation, Integer> counts = new EnumMap<>(SecretOperation.class);
+        trace.getEvents().forEach(event -> counts.merge(event.getOperation(), 1, Integer::sum));
+        counts.forEach((operation, count) -> {
+            latencies.put(operation, new long[count]);
+            recorded.put(operation, new AtomicInteger());
+        });
+        ConcurrentMap<SecretOperation, ConcurrentMap<String, AtomicLong>> errors = new ConcurrentHashMap<>();
+
+        Executor executor = getExecutor();
+        List<CompletableFuture<Void>> calls = new ArrayList<>(trace.size());
+        long start = System.nanoTime();
+        for (TraceEvent event : trace.getEvents()) {
+            long due = start + (long) (event.getOffsetNanos() / speed);
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            calls.add(CompletableFuture.runAsync(() -> {
+                try {
+                    call(event);
+                } catch (RuntimeException e) {
+                    errors.computeIfAbsent(event.getOperation(), operation -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(e.getClass().getSimpleName(), type -> new AtomicLong())
+                            .incrementAndGet();
+                } finally {
+                    long latency = System.nanoTime() - due;
+                    latencies.get(event.getOperation())[recorded.get(event.getOperation()).getAndIncrement()] = latency;
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+        long wallClock = System.nanoTime() - start;
+
+        Map<SecretOperation, Map<String, Long>> errorCounts = new EnumMap<>(SecretOperation.class);
+        errors.forEach((operation, byType) -> {
+            Map<String, Long> counted = new HashMap<>();
+            byType.forEach((type, count) -> counted.put(type, count.get()));
+            errorCounts.put(operation, counted);
+        });
+        ReplayReport report = new ReplayReport(speed, wallClock, latencies, errorCounts);
+        LOGGER.info("Replayed {} calls in {} milliseconds", keyValue("events", report.getEvents()),
+                keyValue("wallClockMillis", report.getWallClockMillis()));
+        return report;
+    }
+
+    public String getSecretIdPrefix() {
+        return secretIdPrefix;
+    }
+
+    public void setSecretIdPrefix(String secretIdPrefix) {
+        Assert.notNull(secretIdPrefix, "Secret ID prefix cannot be null");
+        this.secretIdPrefix = secretIdPrefix;
+    }
+
+    /**
+     * Executor the calls are issued on. Defaults to the executor of the target.
+     */
+    public Executor getExecutor() {
+        return executor != null ? executor : target.getExecutor();
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    private void call(TraceEvent event) {
+        String secretId = secretId(event.getKey());
+        switch (event.getOperation()) {
+            case GET:
+                target.getSecret(secretId);
+                break;
+            case CREATE:
+                target.createSecret(secretId, nextValue());
+                break;
+            case UPDATE:
+                target.updateSecretValue(secretId, nextValue());
+                break;
+            case DELETE:
+                target.deleteSecret(secretId);
+                break;
+            default:
+                throw new IllegalStateException("Unknown operation " + event.getOperation());
+        }
+    }
+
+    private String secretId(String key) {
+        return secretIdPrefix + key;
+    }
+
+    private String nextValue() {
+        return "value-" + values.incrementAndGet();
+    }
+}
@@ -0,0 +1,130 @@
+package edu.common.trace;
+
+import edu.common.SecretOperation;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic traces shaped like production secret access: a few hot secrets and a long tail, with periodic
+ * rotation bursts.
+ * <p>
+ * Calls arrive as a Poisson process of {@code opsPerSecond}. Each picks a secret following a Zipf distribution of
+ * {@code exponent} over {@code keyCount} secrets (key {@code k0} is the hottest) and is an update with probability
+ * {@code writeRatio}, otherwise a read. Every {@code rotationInterval}, the {@code rotatedKeys} hottest secrets are
+ * rotated: each gets an update followed by {@code reloadsPerRotation} reads spread over the next
+ * {@link #RELOAD_WINDOW}, as clients pick up the new value. The same seed always gives the same trace.
+ */
+public class ZipfTraceGenerator {
+
+    public static final String KEY_PREFIX = "k";
+
+    public static final Duration RELOAD_WINDOW = Duration.ofMillis(500);
+
+    private final double[] cumulative;
+
+    private final double opsPerSecond;
+
+    private final double writeRatio;
+
+    private final Duration rotationInterval;
+
+    private final int rotatedKeys;
+
+    private final int reloadsPerRotation;
+
+    private final long seed;
+
+    /**
+     * Steady traffic without rotation bursts.
+     */
+    public ZipfTraceGenerator(int keyCount, double exponent, double opsPerSecond, double writeRatio, long seed) {
+        this(keyCount, exponent, opsPerSecond, writeRatio, null, 0, 0, seed);
+    }
+
+    /**
+     * @param keyCount number of distinct secrets
+     * @param exponent skew of the Zipf distribution, 0 for uniform access, around 1 for typical hot/cold traffic
+     * @param opsPerSecond mean rate of the steady traffic
+     * @param writeRatio share of the steady traffic that updates secrets, between 0 and 1
+     * @param rotationInterval time between two rotation bursts, {@code null} for none
+     * @param rotatedKeys number of secrets rotated by each burst, the hottest ones
+     * @param reloadsPerRotation reads of each rotated secret following its update
+     * @param seed seed of the random generator
+     */
+    public ZipfTraceGenerator(int keyCount, double exponent, double opsPerSecond, double writeRatio,
+                              Duration rotationInterval, int rotatedKeys, int reloadsPerRotation, long seed) {
+        Assert.isTrue(keyCount > 0, "Key count must be positive");
+        Assert.isTrue(exponent >= 0, "Exponent cannot be negative");
+        Assert.isTrue(opsPerSecond > 0, "Operations per second must be positive");
+        Assert.isTrue(writeRatio >= 0 && writeRatio <= 1, "Write ratio must be between 0 and 1");
+        Assert.isTrue(rotationInterval == null || !rotationInterval.isNegative() && !rotationInterval.isZero(),
+                "Rotation interval must be positive");
+        Assert.isTrue(rotatedKeys >= 0 && rotatedKeys <= keyCount, "Rotated keys must be between 0 and the key count");
+        Assert.isTrue(reloadsPerRotation >= 0, "Reloads per rotation cannot be negative");
+        this.cumulative = zipfCumulative(keyCount, exponent);
+        this.opsPerSecond = opsPerSecond;
+        this.writeRatio = writeRatio;
+        this.rotationInterval = rotationInterval;
+        this.rotatedKeys = rotatedKeys;
+        this.reloadsPerRotation = reloadsPerRotation;
+        this.seed = seed;
+    }
+
+    /**
+     * @param duration length of the trace
+     * @return Trace of the calls made during {@code duration}
+     */
+    public SecretTrace generate(Duration duration) {
+        Assert.notNull(duration, "Duration cannot be null");
+        long end = duration.toNanos();
+        Random random = new Random(seed);
+        List<TraceEvent> events = new ArrayList<>();
+
+        double meanGapNanos = 1_000_000_000d / opsPerSecond;
+        long offset = (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+        while (offset < end) {
+            SecretOperation operation = random.nextDouble() < writeRatio ? SecretOperation.UPDATE : SecretOperation.GET;
+            events.add(new TraceEvent(offset, operation, KEY_PREFIX + nextRank(random), 0, null));
+            offset += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+        }
+
+        if (rotationInterval != null) {
+            long interval = rotationInterval.toNanos();
+            for (long rotation = interval; rotation < end; rotation += interval) {
+                for (int rank = 0; rank < rotatedKeys; rank++) {
+                    events.add(new TraceEvent(rotation, SecretOperation.UPDATE, KEY_PREFIX + rank, 0, null));
+                    for (int i = 0; i < reloadsPerRotation; i++) {
+                        long reload = rotation + 1 + (long) (random.nextDouble() * RELOAD_WINDOW.toNanos());
+                        if (reload < end) {
+                            events.add(new TraceEvent(reload, SecretOperation.GET, KEY_PREFIX + rank, 0, null));
+                        }
+                    }
+                }
+            }
+        }
+        return new SecretTrace(events);
+    }
+
+    private int nextRank(Random random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(rank < 0 ? -rank - 1 : rank, cumulative.length - 1);
+    }
+
+    private static double[] zipfCumulative(int keyCount, double exponent) {
+        double[] cumulative = new double[keyCount];
+        double total = 0;
+        for (int rank = 0; rank < keyCount; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < keyCount; rank++) {
+            cumulative[rank] /= total;
+        }
+        return cumulative;
+    }
+}
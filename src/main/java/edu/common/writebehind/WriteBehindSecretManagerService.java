@@ -0,0 +1,260 @@
+package edu.common.writebehind;
+
+import edu.common.ISecretManagerService;
+import edu.common.exception.SMServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static edu.common.exception.SMExceptionLogging.log;
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Coalesces bursts of {@link #updateSecretValue(String, String)} calls on the same secret.
+ * <p>
+ * The first update of a secret opens a window of {@code window}; updates arriving before it closes replace the pending
+ * value (last write wins) and only the last one is written to the delegate when the window closes. Every update gets a
+ * future, completed when the value that superseded it has been stored; failed writes are also logged, since
+ * {@link #updateSecretValue(String, String)} does not return the future. Reads through this instance see pending
+ * values. {@link #flush()} writes everything pending immediately, {@link #close()} flushes and stops the scheduler.
+ */
+public class WriteBehindSecretManagerService implements ISecretManagerService, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindSecretManagerService.class);
+
+    private final ISecretManagerService delegate;
+
+    private final Duration window;
+
+    private final ScheduledExecutorService scheduler;
+
+    /** Updates whose window is still open */
+    private final ConcurrentMap<String, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    /** Latest update handed to the delegate for each secret, until it is stored */
+    private final ConcurrentMap<String, PendingWrite> writing = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Last value written to a secret during the current window, and the future shared by every write it coalesces.
+     */
+    private static class PendingWrite {
+        private final CompletableFuture<Void> stored = new CompletableFuture<>();
+        private volatile String value;
+        private int coalesced;
+        private ScheduledFuture<?> flushTask;
+
+        private PendingWrite(String value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * @param delegate service the coalesced writes are sent to
+     * @param window time an update waits for later updates of the same secret before being written
+     */
+    public WriteBehindSecretManagerService(ISecretManagerService delegate, Duration window) {
+        Assert.notNull(delegate, "Delegate cannot be null");
+        Assert.isTrue(window != null && !window.isNegative(), "Window cannot be null or negative");
+        this.delegate = delegate;
+        this.window = window;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "secret-manager-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the update; it is written to the delegate when the window of the secret closes.
+     * Failures are logged, and reported through {@link #updateSecretValueAsync(String, String)}.
+     */
+    @Override
+    public void updateSecretValue(String secretId, String secretString) {
+        updateSecretValueAsync(secretId, secretString);
+    }
+
+    /**
+     * Queues the update.
+     * @param secretId Specifies the secret that you want to update.
+     * @param secretString Specifies text data that you want to encrypt and store in this new version of the secret.
+     * @return Future completed once the value superseding this update has been stored, or completed exceptionally
+     *         if that write failed
+     */
+    public CompletableFuture<Void> updateSecretValueAsync(String secretId, String secretString) {
+        Assert.isTrue(isNotBlank(secretId), "Secret Id cannot be blank");
+        Assert.isTrue(isNotBlank(secretString), "Secret Value cannot be blank");
+        if (closed) {
+            throw new IllegalStateException("Write-behind service is closed");
+        }
+
+        PendingWrite write = pending.compute(secretId, (id, existing) -> {
+            if (existing == null) {
+                PendingWrite created = new PendingWrite(secretString);
+                created.flushTask = scheduler.schedule(() -> flush(id), window.toNanos(), TimeUnit.NANOSECONDS);
+                return created;
+            }
+            existing.value = secretString;
+            existing.coalesced++;
+            return existing;
+        });
+        return write.stored;
+    }
+
+    /**
+     * Writes every pending update now.
+     * @return Future completed once all of them, and the writes already in flight, have been stored
+     */
+    public CompletableFuture<Void> flush() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String secretId : new ArrayList<>(pending.keySet())) {
+            futures.add(flush(secretId));
+        }
+        for (PendingWrite write : writing.values()) {
+            futures.add(write.stored);
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * @return Number of secrets with an update waiting to be written
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Pending value if the secret has an update waiting to be written, otherwise the value of the delegate.
+     */
+    @Override
+    public String getSecret(String secretId) {
+        PendingWrite write = pending.get(secretId);
+        if (write == null) {
+            write = writing.get(secretId);
+        }
+        return write != null ? write.value : delegate.getSecret(secretId);
+    }
+
+    @Override
+    public void createSecret(String name, String secretString) {
+        delegate.createSecret(name, secretString);
+    }
+
+    /**
+     * Drops the pending update of the secret, if any, and waits for the write already handed to the delegate, so that
+     * it cannot land after the delete.
+     */
+    @Override
+    public void deleteSecret(String secretId) {
+        List<PendingWrite> inFlight = new ArrayList<>(1);
+        pending.compute(secretId, (id, write) -> {
+            if (write != null) {
+                write.flushTask.cancel(false);
+                write.stored.completeExceptionally(new SMServiceException("Secret " + secretId + " was deleted before the update was written"));
+            }
+            // flush(String) hands pending writes over under the same lock, so none can be missed here
+            PendingWrite writingNow = writing.get(id);
+            if (writingNow != null) {
+                inFlight.add(writingNow);
+            }
+            return null;
+        });
+        for (PendingWrite write : inFlight) {
+            // its failure is already reported to its callers
+            write.stored.handle((result, error) -> null).join();
+        }
+        delegate.deleteSecret(secretId);
+    }
+
+    @Override
+    public Stream<String> listSecrets(String nameFilter) {
+        return delegate.listSecrets(nameFilter);
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return delegate.getExecutor();
+    }
+
+    /**
+     * Flushes pending updates, waits for them to be written and stops the scheduler.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flush().join();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Some pending secret updates could not be written on close: {}", e.getMessage());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Closes the window of the secret and hands its last value to the delegate, on {@link #getExecutor()}.
+     * Writes of the same secret are chained so that they reach the delegate in order.
+     */
+    private CompletableFuture<Void> flush(String secretId) {
+        List<PendingWrite> flushed = new ArrayList<>(1);
+        List<CompletableFuture<?>> previousWrites = new ArrayList<>(1);
+        // only decides the hand-over: the write is started once the pending entry is gone, so that it cannot
+        // complete while the entry is still visible, nor update the maps from inside their own compute calls
+        pending.computeIfPresent(secretId, (id, write) -> {
+            write.flushTask.cancel(false);
+            PendingWrite previous = writing.put(id, write);
+            previousWrites.add(previous == null
+                    ? CompletableFuture.completedFuture(null)
+                    : previous.stored.handle((result, error) -> null));
+            flushed.add(write);
+            return null;
+        });
+        if (flushed.isEmpty()) {
+            PendingWrite inFlight = writing.get(secretId);
+            return inFlight != null ? inFlight.stored : CompletableFuture.completedFuture(null);
+        }
+        PendingWrite write = flushed.get(0);
+        previousWrites.get(0).thenRunAsync(() -> store(secretId, write), getExecutor());
+        return write.stored;
+    }
+
+    private void store(String secretId, PendingWrite write) {
+        RuntimeException failure = null;
+        try {
+            delegate.updateSecretValue(secretId, write.value);
+            if (write.coalesced > 0 && LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Wrote {} coalescing {} updates", keyValue("secretId", secretId), keyValue("coalesced", write.coalesced));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not write {}, {} lost", keyValue("secretId", secretId), keyValue("updates", write.coalesced + 1));
+            if (e instanceof SMServiceException) {
+                log(LOGGER, (SMServiceException) e);
+            } else {
+                LOGGER.error(e.getMessage(), e);
+            }
+            failure = e;
+        }
+        // callers waiting on the future see the write gone from this instance
+        writing.remove(secretId, write);
+        if (failure == null) {
+            write.stored.complete(null);
+        } else {
+            write.stored.completeExceptionally(failure);
+        }
+    }
+}
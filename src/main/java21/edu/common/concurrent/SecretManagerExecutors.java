@@ -0,0 +1,43 @@
+package edu.common.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Factory for the executors used by the library for blocking work (batch fetches, refreshes and async adapters).
+ * <p>
+ * Java 21+ variant of the multi-release JAR: every task gets its own virtual thread, so the number of blocking
+ * SDK calls in flight is no longer capped by the size of a platform-thread pool.
+ */
+public final class SecretManagerExecutors {
+
+    private SecretManagerExecutors() {}
+
+    private static class DefaultExecutorHolder {
+        private static final ExecutorService INSTANCE = newBlockingExecutor("secret-manager");
+    }
+
+    /**
+     * Shared executor used when no executor has been supplied to a service.
+     * @return Lazily created executor, shared by every service in the JVM.
+     */
+    public static ExecutorService defaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    /**
+     * Creates a new executor suited to blocking SDK calls.
+     * @param namePrefix Prefix of the names given to the executor threads.
+     * @return New executor; the caller is responsible for shutting it down.
+     */
+    public static ExecutorService newBlockingExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix + "-", 1).factory());
+    }
+
+    /**
+     * @return true when the executors handed out by this class run tasks on virtual threads.
+     */
+    public static boolean isVirtualThreadMode() {
+        return true;
+    }
+}
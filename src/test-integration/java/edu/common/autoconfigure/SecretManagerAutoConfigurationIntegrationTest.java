@@ -0,0 +1,154 @@
+package edu.common.autoconfigure;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+import edu.common.ISecretManagerService;
+import edu.common.aws.AWSSecretManagerService;
+import edu.common.aws.v2.AWSSecretManagerV2Service;
+import edu.common.aws.v2.HttpClientType;
+import edu.common.exception.SMServiceException;
+import edu.common.mock.FaultProfile;
+import edu.common.mock.MockSMService;
+import edu.common.writebehind.WriteBehindSecretManagerService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SecretManagerAutoConfigurationIntegrationTest {
+
+    private AnnotationConfigApplicationContext context;
+
+    @After
+    public void teardown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    public void awsBackendByDefault() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.sm.access_key", "access");
+        properties.put("aws.sm.secret_key", "secret");
+        properties.put("aws.sm.region", "us-east-1");
+        properties.put("aws.sm.endpoint", "secretsmanager.us-east-1.amazonaws.com");
+        load(properties);
+
+        ISecretManagerService service = context.getBean(ISecretManagerService.class);
+        assertTrue(service instanceof AWSSecretManagerService);
+        // client is only built on first use
+        assertFalse(((AWSSecretManagerService) service).isClientInitialized());
+
+        SecretManagerProperties bound = context.getBean(SecretManagerProperties.class);
+        assertEquals("access", bound.getAccessKey());
+        assertEquals("secret", bound.getSecretKey());
+    }
+
+    @Test
+    public void awsV2Backend() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.sm.backend", "aws-v2");
+        properties.put("aws.sm.http-client", "netty-nio");
+        properties.put("aws.sm.region", "us-east-1");
+        load(properties);
+
+        ISecretManagerService service = context.getBean(ISecretManagerService.class);
+        assertTrue(service instanceof AWSSecretManagerV2Service);
+        assertEquals(HttpClientType.NETTY_NIO, ((AWSSecretManagerV2Service) service).getHttpClientType());
+
+        // the context closes the SDK clients through close()
+        context.close();
+        try {
+            service.getSecret("secret");
+            fail("Closed service should not build a new client");
+        } catch (SMServiceException expected) {
+        }
+    }
+
+    @Test(expected = BeanCreationException.class)
+    public void awsV2BackendWithoutRegion() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.sm.backend", "aws-v2");
+        load(properties);
+    }
+
+    @Test
+    public void mockBackend() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.sm.backend", "mock");
+        properties.put("aws.sm.mock.target-directory", "./target/auto-config/");
+        load(properties);
+
+        ISecretManagerService service = context.getBean(ISecretManagerService.class);
+        assertTrue(service instanceof MockSMService);
+        assertEquals("./target/auto-config/", ((MockSMService) service).getTargetDirectory());
+    }
+
+    @Test
+    public void mockBackendWithFaults() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.sm.backend", "mock");
+        properties.put("aws.sm.mock.faults.enabled", "true");
+        properties.put("aws.sm.mock.faults.seed", "7");
+        properties.put("aws.sm.mock.faults.latency", "1ms");
+        properties.put("aws.sm.mock.faults.throttle-rate", "0.1");
+        load(properties);
+
+        FaultProfile profile = ((MockSMService) context.getBean(ISecretManagerService.class)).getFaultProfile();
+        assertNotNull(profile);
+        assertEquals(7, profile.getSeed());
+    }
+
+    @Test
+    public void writeBehind() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.sm.backend", "mock");
+        properties.put("aws.sm.write-behind.window", "2s");
+        load(properties);
+
+        assertTrue(context.getBean(ISecretManagerService.class) instanceof WriteBehindSecretManagerService);
+        assertNotNull(context.getBean(MockSMService.class));
+    }
+
+    @Test
+    public void userDefinedServiceWins() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.sm.backend", "mock");
+        load(properties, UserConfig.class);
+
+        assertSame(UserConfig.SERVICE, context.getBean(ISecretManagerService.class));
+    }
+
+    @Configuration
+    static class UserConfig {
+        static final MockSMService SERVICE = new MockSMService("./target/user-config/");
+
+        @Bean
+        public ISecretManagerService userService() {
+            return SERVICE;
+        }
+    }
+
+    private void load(Map<String, Object> properties, Class<?>... userConfigs) {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        if (userConfigs.length > 0) {
+            context.register(userConfigs);
+        }
+        context.register(SecretManagerAutoConfiguration.class, WriteBehindAutoConfiguration.class);
+        context.refresh();
+    }
+}
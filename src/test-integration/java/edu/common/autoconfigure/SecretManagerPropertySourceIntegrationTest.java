@@ -0,0 +1,149 @@
+package edu.common.autoconfigure;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import edu.common.mock.MockSMService;
+
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SecretManagerPropertySourceIntegrationTest {
+
+    private static final String TARGET_DIRECTORY = "./target/property-source/";
+
+    private MockSMService mockSMService;
+
+    private String jsonSecretId;
+
+    private String plainSecretId;
+
+    @Before
+    public void setup() {
+        mockSMService = new MockSMService(TARGET_DIRECTORY);
+        jsonSecretId = randomAlphabetic(15);
+        plainSecretId = randomAlphabetic(15);
+        mockSMService.createSecret(jsonSecretId, "{\"username\":\"admin\",\"password\":\"Password123\",\"port\":5432,\"a#b\":\"hash\"}");
+        mockSMService.createSecret(plainSecretId, "api-key");
+    }
+
+    @After
+    public void teardown() {
+        FileUtils.deleteQuietly(new File(TARGET_DIRECTORY));
+    }
+
+    @Test
+    public void resolvesPlaceholders() {
+        StandardEnvironment environment = environment();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("db.password", "${sm:" + jsonSecretId + "#password}");
+        properties.put("db.url", "jdbc:postgresql://localhost:${sm:" + jsonSecretId + "#port}/app");
+        properties.put("api.key", "${sm:" + plainSecretId + "}");
+        environment.getPropertySources().addFirst(new MapPropertySource("application", properties));
+
+        new SecretManagerEnvironmentPostProcessor().postProcessEnvironment(environment, null);
+
+        SecretManagerPropertySource propertySource =
+                (SecretManagerPropertySource) environment.getPropertySources().get(SecretManagerPropertySource.NAME);
+        // both secrets were fetched up front
+        assertEquals(2, propertySource.getCachedSecretIds().size());
+
+        assertEquals("Password123", environment.getProperty("db.password"));
+        assertEquals("jdbc:postgresql://localhost:5432/app", environment.getProperty("db.url"));
+        assertEquals("api-key", environment.getProperty("api.key"));
+    }
+
+    @Test
+    public void resolvesSecretNotReferencedFromProperties() {
+        StandardEnvironment environment = environment();
+        new SecretManagerEnvironmentPostProcessor().postProcessEnvironment(environment, null);
+
+        assertEquals("admin", environment.resolvePlaceholders("${sm:" + jsonSecretId + "#username}"));
+    }
+
+    @Test
+    public void secretIdEndsAtFirstSeparator() {
+        StandardEnvironment environment = environment();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hashed", "${sm:" + jsonSecretId + "#a#b}");
+        environment.getPropertySources().addFirst(new MapPropertySource("application", properties));
+
+        new SecretManagerEnvironmentPostProcessor().postProcessEnvironment(environment, null);
+
+        SecretManagerPropertySource propertySource =
+                (SecretManagerPropertySource) environment.getPropertySources().get(SecretManagerPropertySource.NAME);
+        assertEquals(Collections.singleton(jsonSecretId), new HashSet<>(propertySource.getCachedSecretIds()));
+        assertEquals("hash", environment.getProperty("hashed"));
+    }
+
+    @Test
+    public void missingKeyFails() {
+        StandardEnvironment environment = environment();
+        new SecretManagerEnvironmentPostProcessor().postProcessEnvironment(environment, null);
+
+        try {
+            environment.resolvePlaceholders("${sm:" + jsonSecretId + "#pasword}");
+            fail("Missing key resolved to the placeholder default");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(jsonSecretId));
+            assertTrue(e.getMessage().contains("pasword"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keyOfPlainSecretFails() {
+        StandardEnvironment environment = environment();
+        new SecretManagerEnvironmentPostProcessor().postProcessEnvironment(environment, null);
+
+        environment.resolvePlaceholders("${sm:" + plainSecretId + "#password}");
+    }
+
+    @Test
+    public void refreshPicksUpNewValue() {
+        StandardEnvironment environment = environment();
+        new SecretManagerEnvironmentPostProcessor().postProcessEnvironment(environment, null);
+        SecretManagerPropertySource propertySource =
+                (SecretManagerPropertySource) environment.getPropertySources().get(SecretManagerPropertySource.NAME);
+
+        assertEquals("api-key", environment.resolvePlaceholders("${sm:" + plainSecretId + "}"));
+        mockSMService.updateSecretValue(plainSecretId, "rotated-key");
+        assertEquals("api-key", environment.resolvePlaceholders("${sm:" + plainSecretId + "}"));
+
+        propertySource.refresh();
+        assertEquals("rotated-key", environment.resolvePlaceholders("${sm:" + plainSecretId + "}"));
+    }
+
+    @Test
+    public void disabled() {
+        StandardEnvironment environment = environment();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.sm.property-source.enabled", "false");
+        environment.getPropertySources().addFirst(new MapPropertySource("disable", properties));
+
+        new SecretManagerEnvironmentPostProcessor().postProcessEnvironment(environment, null);
+
+        assertFalse(environment.getPropertySources().contains(SecretManagerPropertySource.NAME));
+    }
+
+    private StandardEnvironment environment() {
+        StandardEnvironment environment = new StandardEnvironment();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.sm.backend", "mock");
+        properties.put("aws.sm.mock.target-directory", TARGET_DIRECTORY);
+        environment.getPropertySources().addLast(new MapPropertySource("backend", properties));
+        return environment;
+    }
+}
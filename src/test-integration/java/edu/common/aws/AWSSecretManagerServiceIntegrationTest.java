@@ -1,6 +1,7 @@
 package edu.common.aws;
 
 import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 import edu.common.TestConfig;
 import org.junit.*;
@@ -35,6 +36,21 @@ public class AWSSecretManagerServiceIntegrationTest {
     }
 
 
+    @Test
+    public void warmUpTest() {
+        awsSmService.warmUp(2);
+        awsSmService.createSecret(secretName, secretString);
+        Assert.assertEquals(awsSmService.getSecret(secretName), secretString);
+    }
+
+    @Test
+    public void listTest() {
+        awsSmService.createSecret(secretName, secretString);
+        try (Stream<String> names = awsSmService.listSecrets(secretName)) {
+            Assert.assertTrue(names.anyMatch(secretName::equals));
+        }
+    }
+
     @Test
     public void createTest(){
         awsSmService.createSecret(secretName, secretString);
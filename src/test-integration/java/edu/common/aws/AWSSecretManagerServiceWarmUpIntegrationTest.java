@@ -0,0 +1,139 @@
+package edu.common.aws;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.secretsmanager.AbstractAWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import edu.common.mock.InMemorySMService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs against a stub client, or against a {@link StubSecretsManagerEndpoint} for the connections the warm-up opens.
+ * The warm-up of a real endpoint is covered by {@link AWSSecretManagerServiceIntegrationTest}.
+ */
+public class AWSSecretManagerServiceWarmUpIntegrationTest {
+
+    @Test
+    public void callsRunInParallel() {
+        int connections = 4;
+        CountDownLatch allStarted = new CountDownLatch(connections);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        AWSSecretManagerService service = new AWSSecretManagerService(new AbstractAWSSecretsManager() {
+            @Override
+            public GetSecretValueResult getSecretValue(GetSecretValueRequest request) {
+                assertTrue(request.getSecretId().startsWith(AWSSecretManagerService.WARM_UP_SECRET_ID_PREFIX));
+                threads.add(Thread.currentThread().getName() + Thread.currentThread().getId());
+                allStarted.countDown();
+                try {
+                    // every call holds its connection until all of them are open
+                    allStarted.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new ResourceNotFoundException("not found");
+            }
+        });
+
+        Duration elapsed = service.warmUp(connections);
+
+        assertNotNull(elapsed);
+        assertEquals(0, allStarted.getCount());
+        assertEquals(connections, threads.size());
+    }
+
+    @Test
+    public void opensConnectionsUsedByLaterCalls() throws Exception {
+        int connections = 4;
+        // the setup time keeps the first calls on their connections until every call has started
+        try (StubSecretsManagerEndpoint endpoint = new StubSecretsManagerEndpoint(new InMemorySMService(), Duration.ofMillis(200))) {
+            endpoint.getBackend().createSecret("warm-up/secret", "value");
+            AWSSecretManagerService service = new AWSSecretManagerService("access", "secret",
+                    endpoint.getUri().toString(), "us-east-1");
+
+            service.warmUp(connections);
+
+            assertEquals(connections, endpoint.getConnectionCount());
+            assertEquals(connections, endpoint.getRequestCount("GetSecretValue"));
+            for (int i = 0; i < connections; i++) {
+                assertEquals("value", service.getSecret("warm-up/secret"));
+            }
+            assertEquals(connections, endpoint.getConnectionCount());
+        }
+    }
+
+    @Test
+    public void threadsAreNamedAndCappedAtPoolSize() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        AWSSecretManagerService service = new AWSSecretManagerService(new AbstractAWSSecretsManager() {
+            @Override
+            public GetSecretValueResult getSecretValue(GetSecretValueRequest request) {
+                threads.add(Thread.currentThread().getName());
+                throw new ResourceNotFoundException("not found");
+            }
+        });
+
+        service.warmUp(ClientConfiguration.DEFAULT_MAX_CONNECTIONS + 10);
+
+        assertTrue(threads.size() <= ClientConfiguration.DEFAULT_MAX_CONNECTIONS);
+        assertTrue(threads.contains("secret-manager-warm-up-1"));
+        for (String thread : threads) {
+            assertTrue(thread.matches("secret-manager-warm-up-\\d+"));
+        }
+    }
+
+    @Test
+    public void givesUpAfterTimeout() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AWSSecretManagerService service = new AWSSecretManagerService(new AbstractAWSSecretsManager() {
+            @Override
+            public GetSecretValueResult getSecretValue(GetSecretValueRequest request) {
+                try {
+                    // an endpoint that never answers
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                throw new SdkClientException("Unable to execute HTTP request");
+            }
+        });
+
+        Duration elapsed = service.warmUp(2, Duration.ofMillis(200));
+
+        assertTrue(elapsed.toMillis() < TimeUnit.SECONDS.toMillis(5));
+        assertTrue(await(interrupted));
+    }
+
+    @Test
+    public void failuresAreNotThrown() {
+        AWSSecretManagerService service = new AWSSecretManagerService(new AbstractAWSSecretsManager() {
+            @Override
+            public GetSecretValueResult getSecretValue(GetSecretValueRequest request) {
+                throw new SdkClientException("Unable to execute HTTP request");
+            }
+        });
+
+        assertNotNull(service.warmUp(2));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
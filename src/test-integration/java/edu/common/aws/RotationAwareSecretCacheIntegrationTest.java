@@ -0,0 +1,217 @@
+package edu.common.aws;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.secretsmanager.AbstractAWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.DeleteSecretRequest;
+import com.amazonaws.services.secretsmanager.model.DeleteSecretResult;
+import com.amazonaws.services.secretsmanager.model.DescribeSecretRequest;
+import com.amazonaws.services.secretsmanager.model.DescribeSecretResult;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import com.amazonaws.services.secretsmanager.model.UpdateSecretRequest;
+import com.amazonaws.services.secretsmanager.model.UpdateSecretResult;
+
+import edu.common.exception.SMSecretNotFoundException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs against a stub client simulating the staging labels moved by a rotation.
+ */
+public class RotationAwareSecretCacheIntegrationTest {
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    private volatile Map<String, List<String>> stages;
+
+    private final AtomicInteger describeCalls = new AtomicInteger();
+
+    private final AtomicInteger getCalls = new AtomicInteger();
+
+    private volatile long describeDelayMillis;
+
+    private AWSSecretManagerService service;
+
+    private RotationAwareSecretCache cache;
+
+    @Before
+    public void setup() {
+        values.put("v1", "password1");
+        values.put("v2", "password2");
+        stages = Collections.singletonMap("v1", Collections.singletonList("AWSCURRENT"));
+
+        AWSSecretManagerService service = new AWSSecretManagerService(new AbstractAWSSecretsManager() {
+            @Override
+            public DescribeSecretResult describeSecret(DescribeSecretRequest request) {
+                Map<String, List<String>> described = stages;
+                describeCalls.incrementAndGet();
+                try {
+                    Thread.sleep(describeDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new DescribeSecretResult().withName(request.getSecretId()).withVersionIdsToStages(described);
+            }
+
+            @Override
+            public UpdateSecretResult updateSecret(UpdateSecretRequest request) {
+                values.put("v3", request.getSecretString());
+                stages = Collections.singletonMap("v3", Collections.singletonList("AWSCURRENT"));
+                return new UpdateSecretResult().withName(request.getSecretId()).withVersionId("v3");
+            }
+
+            @Override
+            public DeleteSecretResult deleteSecret(DeleteSecretRequest request) {
+                stages = Collections.emptyMap();
+                return new DeleteSecretResult().withName(request.getSecretId());
+            }
+
+            @Override
+            public GetSecretValueResult getSecretValue(GetSecretValueRequest request) {
+                getCalls.incrementAndGet();
+                return new GetSecretValueResult().withVersionId(request.getVersionId()).withSecretString(values.get(request.getVersionId()));
+            }
+        });
+        this.service = service;
+        cache = new RotationAwareSecretCache(service, Duration.ofHours(1));
+    }
+
+    @After
+    public void teardown() {
+        cache.close();
+    }
+
+    @Test
+    public void rotation() {
+        assertEquals("password1", cache.getSecret("db"));
+        assertEquals(Collections.singletonList("password1"), cache.getSecretCandidates("db"));
+        assertNull(cache.getPendingSecret("db"));
+
+        Map<String, List<String>> rotating = new ConcurrentHashMap<>();
+        rotating.put("v1", Collections.singletonList("AWSCURRENT"));
+        rotating.put("v2", Collections.singletonList("AWSPENDING"));
+        stages = rotating;
+        cache.checkRotation("db");
+
+        assertEquals("password1", cache.getSecret("db"));
+        assertEquals(Arrays.asList("password1", "password2"), cache.getSecretCandidates("db"));
+        int fetchesBeforePromotion = getCalls.get();
+
+        Map<String, List<String>> promoted = new ConcurrentHashMap<>();
+        promoted.put("v1", Collections.singletonList("AWSPREVIOUS"));
+        promoted.put("v2", Collections.singletonList("AWSCURRENT"));
+        stages = promoted;
+        cache.checkRotation("db");
+
+        assertEquals("password2", cache.getSecret("db"));
+        assertNull(cache.getPendingSecret("db"));
+        // the promoted value was already cached
+        assertEquals(fetchesBeforePromotion, getCalls.get());
+    }
+
+    @Test
+    public void concurrentLoadsShareOneCall() throws Exception {
+        describeDelayMillis = 500;
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.getSecret("db");
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                assertEquals("password1", future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, describeCalls.get());
+        assertEquals(1, getCalls.get());
+    }
+
+    @Test
+    public void updateDuringCheckIsNotOverwritten() throws Exception {
+        assertEquals("password1", cache.getSecret("db"));
+        CompletableFuture<Void> check = checkInBackground();
+
+        cache.updateSecretValue("db", "password3");
+
+        assertEquals("password3", cache.getSecret("db"));
+        check.get(10, TimeUnit.SECONDS);
+        assertEquals("password3", cache.getSecret("db"));
+    }
+
+    @Test
+    public void deleteDuringCheckIsNotUndone() throws Exception {
+        assertEquals("password1", cache.getSecret("db"));
+        CompletableFuture<Void> check = checkInBackground();
+
+        cache.deleteSecret("db");
+        check.get(10, TimeUnit.SECONDS);
+
+        try {
+            cache.getSecret("db");
+            fail("Deleted secret served from the cache");
+        } catch (SMSecretNotFoundException e) {
+            // loaded again, and gone
+        }
+    }
+
+    @Test
+    public void evictsIdleSecrets() throws Exception {
+        cache.close();
+        cache = new RotationAwareSecretCache(service, Duration.ofMillis(20), Duration.ofMillis(100));
+        assertEquals("password1", cache.getSecret("db"));
+        assertEquals(1, cache.size());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (cache.size() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, cache.size());
+
+        int describedAfterEviction = describeCalls.get();
+        Thread.sleep(200);
+        assertEquals(describedAfterEviction, describeCalls.get());
+    }
+
+    /**
+     * Starts a check of "db" that sees the staging labels as they are now but completes only after 300 milliseconds.
+     */
+    private CompletableFuture<Void> checkInBackground() throws InterruptedException {
+        describeDelayMillis = 300;
+        int described = describeCalls.get();
+        CompletableFuture<Void> check = CompletableFuture.runAsync(() -> cache.checkRotation("db"));
+        while (describeCalls.get() == described) {
+            Thread.sleep(5);
+        }
+        describeDelayMillis = 0;
+        return check;
+    }
+}
@@ -0,0 +1,182 @@
+package edu.common.aws;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.common.exception.SMServiceException;
+import edu.common.mock.InMemorySMService;
+
+/**
+ * Local stand-in for the Secrets Manager endpoint: answers the JSON protocol of the AWS SDKs over plain HTTP from an
+ * {@link InMemorySMService}, so that the SDK clients run their full request path without a network or credentials.
+ * <p>
+ * Supports {@code CreateSecret}, {@code GetSecretValue}, {@code UpdateSecret}, {@code DescribeSecret} and
+ * {@code DeleteSecret}; errors are answered with the error code of the {@link SMServiceException}. There is no TLS, so
+ * the first request on each new connection waits for {@code connectionSetup} to stand for the TCP and TLS handshakes
+ * of a real endpoint.
+ */
+public class StubSecretsManagerEndpoint implements Closeable {
+
+    private static final String CONTENT_TYPE = "application/x-amz-json-1.1";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        // without TCP_NODELAY, delayed ACKs add about 40 ms to every request on a reused connection
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final InMemorySMService backend;
+
+    private final long connectionSetupNanos;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    /**
+     * Empty in-memory backend, no connection setup time.
+     */
+    public StubSecretsManagerEndpoint() throws IOException {
+        this(new InMemorySMService(), Duration.ZERO);
+    }
+
+    /**
+     * @param backend service answering the requests
+     * @param connectionSetup wait of the first request of each connection
+     */
+    public StubSecretsManagerEndpoint(InMemorySMService backend, Duration connectionSetup) throws IOException {
+        this.backend = backend;
+        this.connectionSetupNanos = connectionSetup.toNanos();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-endpoint-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public URI getUri() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    public InMemorySMService getBackend() {
+        return backend;
+    }
+
+    /**
+     * @return Number of connections that made at least one request
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * @return Number of requests made for {@code operation}, {@code GetSecretValue} for instance
+     */
+    public int getRequestCount(String operation) {
+        AtomicInteger count = requests.get(operation);
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            if (connections.add(exchange.getRemoteAddress()) && connectionSetupNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(connectionSetupNanos);
+            }
+            String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+            String operation = target == null ? "" : target.substring(target.indexOf('.') + 1);
+            requests.computeIfAbsent(operation, o -> new AtomicInteger()).incrementAndGet();
+            JsonNode request = MAPPER.readTree(in);
+            try {
+                respond(exchange, 200, call(operation, request));
+            } catch (SMServiceException e) {
+                ObjectNode error = MAPPER.createObjectNode()
+                        .put("__type", e.getErrorCode())
+                        .put("message", e.getMessage());
+                respond(exchange, e.isRetryable() ? 500 : 400, error);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        }
+    }
+
+    private ObjectNode call(String operation, JsonNode request) {
+        ObjectNode response = MAPPER.createObjectNode();
+        switch (operation) {
+            case "CreateSecret":
+                backend.createSecret(request.path("Name").asText(), request.path("SecretString").asText());
+                return response.put("Name", request.path("Name").asText()).put("ARN", arn(request.path("Name").asText()));
+            case "GetSecretValue":
+                String secretId = request.path("SecretId").asText();
+                return response.put("Name", secretId).put("ARN", arn(secretId))
+                        .put("SecretString", backend.getSecret(secretId)).put("VersionId", "1");
+            case "UpdateSecret":
+                if (request.hasNonNull("SecretString")) {
+                    backend.updateSecretValue(request.path("SecretId").asText(), request.path("SecretString").asText());
+                }
+                if (request.hasNonNull("Description")) {
+                    backend.updateSecretDescription(request.path("SecretId").asText(), request.path("Description").asText());
+                }
+                return response.put("Name", request.path("SecretId").asText());
+            case "DescribeSecret":
+                return response.put("Name", request.path("SecretId").asText())
+                        .put("Description", backend.getSecretDescription(request.path("SecretId").asText()));
+            case "DeleteSecret":
+                backend.deleteSecret(request.path("SecretId").asText());
+                return response.put("Name", request.path("SecretId").asText());
+            default:
+                throw new SMServiceException("Unsupported operation " + operation, null, "UnknownOperationException");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.getResponseHeaders().set("x-amzn-RequestId", "stub");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String arn(String name) {
+        return "arn:aws:secretsmanager:us-east-1:000000000000:secret:" + name;
+    }
+}
@@ -0,0 +1,51 @@
+package edu.common.aws.v2;
+
+import java.time.LocalDateTime;
+
+import edu.common.TestConfig;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphanumeric;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = TestConfig.class)
+public class AWSSecretManagerV2ServiceIntegrationTest {
+
+    @Autowired
+    AWSSecretManagerV2Service awsSmV2Service;
+
+    private String secretString = "Password123";
+    private String secretName;
+
+    @Before
+    public void setUp() {
+        secretName = randomAlphanumeric(10) + LocalDateTime.now().hashCode();
+    }
+
+    @After
+    public void tearDown() {
+        awsSmV2Service.deleteSecret(secretName);
+    }
+
+    @Test
+    public void createTest(){
+        awsSmV2Service.createSecret(secretName, secretString);
+        Assert.assertEquals(awsSmV2Service.getSecret(secretName), secretString);
+    }
+
+    @Test
+    public void getAsyncTest() {
+        awsSmV2Service.createSecret(secretName, secretString);
+        Assert.assertEquals(awsSmV2Service.getSecretAsync(secretName).join(), secretString);
+    }
+
+    @Test
+    public void updateTest() {
+        awsSmV2Service.createSecret(secretName, secretString);
+        awsSmV2Service.updateSecretValue(secretName, "Password456");
+        Assert.assertEquals(awsSmV2Service.getSecret(secretName), "Password456");
+    }
+}
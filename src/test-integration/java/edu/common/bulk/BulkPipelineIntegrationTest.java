@@ -0,0 +1,124 @@
+package edu.common.bulk;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.common.exception.SMAccessDeniedException;
+import edu.common.exception.SMThrottledException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BulkPipelineIntegrationTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(16);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void retriesThrottledCalls() {
+        BulkPipeline pipeline = new BulkPipeline(4, 5, Duration.ofMillis(1), Duration.ofMillis(5));
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+        Map<String, BulkOperationResult> results = pipeline.run(ids(20), id -> {
+            if (calls.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet() < 3) {
+                throw new SMThrottledException("Rate exceeded");
+            }
+        }, executor);
+
+        assertEquals(20, results.size());
+        for (BulkOperationResult result : results.values()) {
+            assertTrue(result.isSuccess());
+            assertEquals(3, result.getAttempts());
+        }
+    }
+
+    @Test
+    public void doesNotRetryNonRetryableErrors() {
+        BulkPipeline pipeline = new BulkPipeline(4, 5, Duration.ofMillis(1), Duration.ofMillis(5));
+
+        Map<String, BulkOperationResult> results = pipeline.run(ids(3), id -> {
+            if (id.equals("secret-1")) {
+                throw new SMAccessDeniedException("Denied");
+            }
+        }, executor);
+
+        assertTrue(results.get("secret-0").isSuccess());
+        assertFalse(results.get("secret-1").isSuccess());
+        assertEquals(1, results.get("secret-1").getAttempts());
+        assertEquals(1, BulkPipeline.failedIds(results).size());
+    }
+
+    @Test
+    public void boundsConcurrency() {
+        BulkPipeline pipeline = new BulkPipeline(3, 1, Duration.ZERO, Duration.ZERO);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        pipeline.run(ids(30), id -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+        }, executor);
+
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void throttlingSlowsDownWholeRun() {
+        BulkPipeline pipeline = new BulkPipeline(8, 5, Duration.ofMillis(1), Duration.ofMillis(5));
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlightAfterThrottling = new AtomicInteger();
+
+        Map<String, BulkOperationResult> results = pipeline.run(ids(20), id -> {
+            int running = inFlight.incrementAndGet();
+            try {
+                if (calls.incrementAndGet() <= 8) {
+                    throw new SMThrottledException("Rate exceeded");
+                }
+                maxInFlightAfterThrottling.accumulateAndGet(running, Math::max);
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }, executor);
+
+        assertTrue(BulkPipeline.failedIds(results).isEmpty());
+        // 20 successes are not enough to grow back from 1 to 8 calls in flight
+        assertTrue(maxInFlightAfterThrottling.get() < 8);
+    }
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add("secret-" + i);
+        }
+        return ids;
+    }
+}
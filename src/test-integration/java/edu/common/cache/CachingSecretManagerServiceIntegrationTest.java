@@ -0,0 +1,176 @@
+package edu.common.cache;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.common.cache.invalidation.InvalidationBus;
+import edu.common.cache.invalidation.LoopbackInvalidationTransport;
+import edu.common.mock.MockSMService;
+
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CachingSecretManagerServiceIntegrationTest {
+
+    private static final String TARGET_DIRECTORY = "./target/caching/";
+
+    private MockSMService mockSMService;
+
+    private InvalidationBus busA;
+
+    private InvalidationBus busB;
+
+    private CachingSecretManagerService nodeA;
+
+    private CachingSecretManagerService nodeB;
+
+    private String secretId;
+
+    /**
+     * Holds the first read it serves after reading the value, until released.
+     */
+    private static class SlowMockSMService extends MockSMService {
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        SlowMockSMService() {
+            super(TARGET_DIRECTORY);
+        }
+
+        @Override
+        public String getSecret(String secretId) {
+            String value = super.getSecret(secretId);
+            if (loaded.getCount() > 0) {
+                loaded.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return value;
+        }
+
+        /**
+         * Starts {@code load} and waits until it has read the value.
+         */
+        CompletableFuture<String> loadBlocked(Supplier<String> load) throws InterruptedException {
+            CompletableFuture<String> future = CompletableFuture.supplyAsync(load);
+            assertTrue(loaded.await(10, TimeUnit.SECONDS));
+            return future;
+        }
+    }
+
+    @Before
+    public void setup() {
+        secretId = randomAlphabetic(15);
+        mockSMService = new MockSMService(TARGET_DIRECTORY);
+        mockSMService.createSecret(secretId, "v1");
+
+        LoopbackInvalidationTransport.Hub hub = new LoopbackInvalidationTransport.Hub();
+        busA = new InvalidationBus("node-a", new LoopbackInvalidationTransport(hub));
+        busB = new InvalidationBus("node-b", new LoopbackInvalidationTransport(hub));
+        nodeA = new CachingSecretManagerService(mockSMService, Duration.ofHours(1), busA, false);
+        nodeB = new CachingSecretManagerService(mockSMService, Duration.ofHours(1), busB, false);
+    }
+
+    @After
+    public void teardown() {
+        busA.close();
+        busB.close();
+        FileUtils.deleteQuietly(new File(TARGET_DIRECTORY));
+    }
+
+    @Test
+    public void servesFromCache() {
+        assertEquals("v1", nodeA.getSecret(secretId));
+        mockSMService.updateSecretValue(secretId, "v2");
+
+        assertEquals("v1", nodeA.getSecret(secretId));
+        nodeA.invalidate(secretId);
+        assertEquals("v2", nodeA.getSecret(secretId));
+    }
+
+    @Test
+    public void expiredEntryIsFetchedAgain() {
+        CachingSecretManagerService shortLived = new CachingSecretManagerService(mockSMService, Duration.ZERO);
+        assertEquals("v1", shortLived.getSecret(secretId));
+        mockSMService.updateSecretValue(secretId, "v2");
+
+        assertEquals("v2", shortLived.getSecret(secretId));
+    }
+
+    @Test
+    public void updateOnOneNodeInvalidatesPeers() {
+        assertEquals("v1", nodeA.getSecret(secretId));
+        assertEquals("v1", nodeB.getSecret(secretId));
+
+        nodeA.updateSecretValue(secretId, "v2");
+
+        assertFalse(nodeB.isCached(secretId));
+        assertEquals("v2", nodeB.getSecret(secretId));
+        assertEquals(1, busB.getMetrics().getApplied());
+        assertEquals(1, busA.getMetrics().getPublished());
+    }
+
+    @Test
+    public void deleteOnOneNodeInvalidatesPeers() {
+        assertEquals("v1", nodeB.getSecret(secretId));
+
+        nodeA.deleteSecret(secretId);
+
+        assertFalse(nodeB.isCached(secretId));
+    }
+
+    @Test
+    public void updateDuringLoadIsNotOverwritten() throws Exception {
+        SlowMockSMService slow = new SlowMockSMService();
+        CachingSecretManagerService node = new CachingSecretManagerService(slow, Duration.ofHours(1), busA, false);
+
+        CompletableFuture<String> load = slow.loadBlocked(() -> node.getSecret(secretId));
+        node.updateSecretValue(secretId, "v2");
+        slow.release.countDown();
+
+        assertEquals("v1", load.get(10, TimeUnit.SECONDS));
+        assertEquals("v2", node.getSecret(secretId));
+    }
+
+    @Test
+    public void invalidationDuringLoadIsNotOverwritten() throws Exception {
+        SlowMockSMService slow = new SlowMockSMService();
+        CachingSecretManagerService node = new CachingSecretManagerService(slow, Duration.ofHours(1), busA, false);
+
+        CompletableFuture<String> load = slow.loadBlocked(() -> node.getSecret(secretId));
+        nodeB.updateSecretValue(secretId, "v2");
+        slow.release.countDown();
+
+        assertEquals("v1", load.get(10, TimeUnit.SECONDS));
+        assertFalse(node.isCached(secretId));
+        assertEquals("v2", node.getSecret(secretId));
+    }
+
+    @Test
+    public void refreshOnInvalidation() throws Exception {
+        CachingSecretManagerService refreshing = new CachingSecretManagerService(mockSMService, Duration.ofHours(1), busB, true);
+        assertEquals("v1", refreshing.getSecret(secretId));
+
+        nodeA.updateSecretValue(secretId, "v2");
+
+        for (int i = 0; i < 100 && !refreshing.isCached(secretId); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(refreshing.isCached(secretId));
+        assertEquals("v2", refreshing.getSecret(secretId));
+    }
+}
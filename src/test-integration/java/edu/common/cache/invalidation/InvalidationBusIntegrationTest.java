@@ -0,0 +1,143 @@
+package edu.common.cache.invalidation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class InvalidationBusIntegrationTest {
+
+    private InvalidationBus bus;
+
+    private List<String> invalidated;
+
+    private static class NoopTransport implements InvalidationTransport {
+        @Override
+        public void start(Consumer<byte[]> receiver) {}
+
+        @Override
+        public void send(byte[] payload) {}
+
+        @Override
+        public void close() {}
+    }
+
+    @Before
+    public void setup() {
+        invalidated = new ArrayList<>();
+        bus = new InvalidationBus("node-b", new NoopTransport());
+        bus.addListener(invalidated::add);
+    }
+
+    @Test
+    public void messageRoundTrip() {
+        InvalidationMessage message = new InvalidationMessage("db/prod", "node-a", 7, 42, 1000);
+        byte[] payload = message.toBytes();
+
+        InvalidationMessage decoded = InvalidationMessage.fromBytes(payload, 0, payload.length);
+        assertEquals("db/prod", decoded.getSecretId());
+        assertEquals("node-a", decoded.getOriginNodeId());
+        assertEquals(7, decoded.getEpoch());
+        assertEquals(42, decoded.getVersion());
+        assertEquals(1000, decoded.getSentAtMillis());
+    }
+
+    @Test
+    public void forgetsSilentOrigins() throws InterruptedException {
+        InvalidationBus shortMemory = new InvalidationBus("node-b", new NoopTransport(), Duration.ofMillis(50));
+        shortMemory.receive(new InvalidationMessage("db/prod", "node-a", 1, 1, System.currentTimeMillis()).toBytes());
+        shortMemory.receive(new InvalidationMessage("db/prod", "node-c", 1, 1, System.currentTimeMillis()).toBytes());
+        assertEquals(2, shortMemory.getOriginCount());
+
+        Thread.sleep(100);
+        shortMemory.receive(new InvalidationMessage("db/prod", "node-d", 1, 1, System.currentTimeMillis()).toBytes());
+
+        assertEquals(1, shortMemory.getOriginCount());
+    }
+
+    @Test
+    public void dropsDuplicates() {
+        byte[] payload = new InvalidationMessage("db/prod", "node-a", 1, 1, System.currentTimeMillis()).toBytes();
+
+        bus.receive(payload);
+        bus.receive(payload);
+
+        assertEquals(1, invalidated.size());
+        assertEquals(1, bus.getMetrics().getDropped());
+    }
+
+    @Test
+    public void dropsOutOfOrderMessages() {
+        bus.receive(new InvalidationMessage("db/prod", "node-a", 1, 5, System.currentTimeMillis()).toBytes());
+        bus.receive(new InvalidationMessage("db/prod", "node-a", 1, 3, System.currentTimeMillis()).toBytes());
+        bus.receive(new InvalidationMessage("other", "node-a", 1, 4, System.currentTimeMillis()).toBytes());
+
+        assertEquals(2, invalidated.size());
+        assertEquals("db/prod", invalidated.get(0));
+        assertEquals("other", invalidated.get(1));
+    }
+
+    @Test
+    public void appliesMessagesOfEveryOrigin() {
+        bus.receive(new InvalidationMessage("db/prod", "node-a", 1, 5, System.currentTimeMillis()).toBytes());
+        bus.receive(new InvalidationMessage("db/prod", "node-c", 1, 3, System.currentTimeMillis()).toBytes());
+
+        assertEquals(2, invalidated.size());
+        assertEquals(0, bus.getMetrics().getDropped());
+    }
+
+    @Test
+    public void appliesMessagesOfRestartedPeer() {
+        for (int version = 1; version <= 3; version++) {
+            bus.receive(new InvalidationMessage("db/prod", "node-a", 1000, version, System.currentTimeMillis()).toBytes());
+        }
+        // node-a restarted, its sequence starts over
+        bus.receive(new InvalidationMessage("db/prod", "node-a", 2000, 1, System.currentTimeMillis()).toBytes());
+        // late message sent before the restart
+        bus.receive(new InvalidationMessage("db/prod", "node-a", 1000, 2, System.currentTimeMillis()).toBytes());
+
+        assertEquals(5, invalidated.size());
+        assertEquals(0, bus.getMetrics().getDropped());
+    }
+
+    @Test
+    public void appliesMessagesOfPeerBehindLocalSequence() {
+        for (int i = 0; i < 10; i++) {
+            bus.publish("db/prod");
+        }
+        bus.receive(new InvalidationMessage("db/prod", "node-a", 1, 1, System.currentTimeMillis()).toBytes());
+
+        assertEquals(1, invalidated.size());
+    }
+
+    @Test
+    public void dropsOwnMessages() {
+        List<byte[]> sent = new ArrayList<>();
+        InvalidationBus echoing = new InvalidationBus("node-b", new NoopTransport() {
+            @Override
+            public void send(byte[] payload) {
+                sent.add(payload);
+            }
+        });
+        echoing.addListener(invalidated::add);
+        echoing.publish("db/prod");
+
+        echoing.receive(sent.get(0));
+
+        assertEquals(0, invalidated.size());
+        assertEquals(1, echoing.getMetrics().getDropped());
+    }
+
+    @Test
+    public void dropsMalformedPayloads() {
+        bus.receive(new byte[] {9, 9, 9});
+
+        assertEquals(0, invalidated.size());
+        assertEquals(1, bus.getMetrics().getMalformed());
+    }
+}
@@ -0,0 +1,141 @@
+package edu.common.mock;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.common.SecretOperation;
+import edu.common.exception.SMServiceException;
+import edu.common.exception.SMThrottledException;
+import edu.common.exception.SMTransientException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FaultProfileIntegrationTest {
+
+    private static final String TARGET_DIRECTORY = "./target/faults/";
+
+    private MockSMService mockSMService;
+
+    @Before
+    public void setup() {
+        mockSMService = new MockSMService(TARGET_DIRECTORY);
+        mockSMService.createSecret("secret", "value");
+    }
+
+    @After
+    public void teardown() {
+        FileUtils.deleteQuietly(new File(TARGET_DIRECTORY));
+    }
+
+    @Test
+    public void sameSeedSameFaults() {
+        List<String> first = outcomes(new FaultProfile(42).throttleRate(0.2).transientErrorRate(0.2));
+        List<String> second = outcomes(new FaultProfile(42).throttleRate(0.2).transientErrorRate(0.2));
+        List<String> otherSeed = outcomes(new FaultProfile(43).throttleRate(0.2).transientErrorRate(0.2));
+
+        assertEquals(first, second);
+        assertNotEquals(first, otherSeed);
+        assertTrue(first.contains("SMThrottledException"));
+        assertTrue(first.contains("SMTransientException"));
+        assertTrue(first.contains("OK"));
+    }
+
+    @Test
+    public void ratesAreRespected() {
+        FaultProfile profile = new FaultProfile(1).throttleRate(0.1);
+        outcomes(profile, 2000);
+
+        assertEquals(0.1, profile.getThrottledCount() / 2000d, 0.03);
+        assertEquals(0, profile.getTransientErrorCount());
+    }
+
+    @Test
+    public void latencyPerOperation() {
+        mockSMService.setFaultProfile(new FaultProfile(1).latency(SecretOperation.GET, LatencyDistribution.fixed(Duration.ofMillis(50))));
+
+        long start = System.nanoTime();
+        mockSMService.getSecret("secret");
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+
+        start = System.nanoTime();
+        mockSMService.updateSecretValue("secret", "value2");
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(50).toNanos());
+        assertEquals(Duration.ofMillis(50), mockSMService.getFaultProfile().getInjectedLatency());
+    }
+
+    @Test
+    public void latencyDistributions() {
+        SplittableRandom random = new SplittableRandom(1);
+        LatencyDistribution uniform = LatencyDistribution.uniform(Duration.ofMillis(10), Duration.ofMillis(20));
+        LatencyDistribution logNormal = LatencyDistribution.logNormal(Duration.ofMillis(10), 0.5);
+        long[] samples = new long[1000];
+        for (int i = 0; i < samples.length; i++) {
+            long sample = uniform.sampleNanos(random);
+            assertTrue(sample >= Duration.ofMillis(10).toNanos() && sample <= Duration.ofMillis(20).toNanos());
+            samples[i] = logNormal.sampleNanos(random);
+        }
+        Arrays.sort(samples);
+        assertEquals(Duration.ofMillis(10).toNanos(), samples[500], Duration.ofMillis(1).toNanos());
+    }
+
+    @Test
+    public void outageWindow() throws Exception {
+        mockSMService.setFaultProfile(new FaultProfile(1).outage(Duration.ZERO, Duration.ofMillis(200)));
+
+        try {
+            mockSMService.getSecret("secret");
+            fail();
+        } catch (SMTransientException e) {
+            assertEquals(FaultProfile.SERVICE_UNAVAILABLE_ERROR_CODE, e.getErrorCode());
+            assertTrue(e.isRetryable());
+        }
+
+        Thread.sleep(250);
+        assertEquals("value", mockSMService.getSecret("secret"));
+        assertEquals(1, mockSMService.getFaultProfile().getOutageErrorCount());
+    }
+
+    @Test
+    public void throttlingIsRetryable() {
+        mockSMService.setFaultProfile(new FaultProfile(1).throttleRate(1));
+        try {
+            mockSMService.getSecret("secret");
+            fail();
+        } catch (SMThrottledException e) {
+            assertTrue(e.isRetryable());
+        }
+
+        mockSMService.setFaultProfile(null);
+        assertEquals("value", mockSMService.getSecret("secret"));
+    }
+
+    private List<String> outcomes(FaultProfile profile) {
+        return outcomes(profile, 100);
+    }
+
+    private List<String> outcomes(FaultProfile profile, int calls) {
+        mockSMService.setFaultProfile(profile);
+        List<String> outcomes = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            try {
+                mockSMService.getSecret("secret");
+                outcomes.add("OK");
+            } catch (SMServiceException e) {
+                outcomes.add(e.getClass().getSimpleName());
+            }
+        }
+        return outcomes;
+    }
+}
@@ -0,0 +1,215 @@
+package edu.common.mock;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.common.exception.SMSecretNotFoundException;
+import edu.common.exception.SMValidationException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InMemorySMServiceIntegrationTest {
+
+    private static final String EXPORT_DIRECTORY = "./target/in-memory-export/";
+
+    private InMemorySMService service;
+
+    @Before
+    public void setup() {
+        service = new InMemorySMService(2);
+    }
+
+    @After
+    public void teardown() {
+        FileUtils.deleteQuietly(new File(EXPORT_DIRECTORY));
+    }
+
+    @Test
+    public void createGetUpdateDelete() {
+        service.createSecret("secret", "v1");
+        assertEquals("v1", service.getSecret("secret"));
+
+        service.updateSecretValue("secret", "v2");
+        assertEquals("v2", service.getSecret("secret"));
+        assertEquals(2, service.getSecretVersion("secret"));
+
+        service.deleteSecret("secret");
+        service.deleteSecret("secret");
+        assertEquals(0, service.size());
+    }
+
+    @Test(expected = SMValidationException.class)
+    public void createDuplicate() {
+        service.createSecret("secret", "v1");
+        service.createSecret("secret", "v2");
+    }
+
+    @Test(expected = SMSecretNotFoundException.class)
+    public void getMissing() {
+        service.getSecret("missing");
+    }
+
+    @Test(expected = SMSecretNotFoundException.class)
+    public void updateMissing() {
+        service.updateSecretValue("missing", "v1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blankValue() {
+        service.createSecret("secret", " ");
+    }
+
+    @Test
+    public void history() {
+        service.createSecret("secret", "v1");
+        service.updateSecretValue("secret", "v2");
+        service.updateSecretValue("secret", "v3");
+        service.updateSecretValue("secret", "v4");
+
+        assertEquals(Arrays.asList("v3", "v2"), service.getSecretHistory("secret"));
+    }
+
+    @Test
+    public void compareAndSet() {
+        service.createSecret("secret", "v1");
+
+        assertFalse(service.compareAndSetSecretValue("secret", "v0", "v2"));
+        assertTrue(service.compareAndSetSecretValue("secret", "v1", "v2"));
+        assertEquals("v2", service.getSecret("secret"));
+    }
+
+    @Test
+    public void concurrentCompareAndSetLosesNoUpdate() throws Exception {
+        service.createSecret("counter", "0");
+        int threads = 8;
+        int incrementsPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < incrementsPerThread; i++) {
+                        while (true) {
+                            String current = service.getSecret("counter");
+                            if (service.compareAndSetSecretValue("counter", current, String.valueOf(Integer.parseInt(current) + 1))) {
+                                break;
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(String.valueOf(threads * incrementsPerThread), service.getSecret("counter"));
+        assertEquals(threads * incrementsPerThread + 1, service.getSecretVersion("counter"));
+    }
+
+    @Test
+    public void compareAndSetRacingWithDeletes() throws Exception {
+        service.createSecret("counter", "0");
+        int threads = 8;
+        int incrementsPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean deleting = new AtomicBoolean(true);
+        try {
+            Future<?> deleter = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    service.deleteSecret("counter");
+                    service.createSecret("counter", "0");
+                }
+                deleting.set(false);
+                return null;
+            });
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    int done = 0;
+                    while (deleting.get() || done < incrementsPerThread) {
+                        try {
+                            String current = service.getSecret("counter");
+                            if (service.compareAndSetSecretValue("counter", current, String.valueOf(Integer.parseInt(current) + 1))) {
+                                done++;
+                            }
+                        } catch (SMSecretNotFoundException e) {
+                            // deleted between two calls, created again right after
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            deleter.get(30, TimeUnit.SECONDS);
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // every increment of the last created secret is counted in both its value and its version
+        assertEquals(Long.parseLong(service.getSecret("counter")) + 1, service.getSecretVersion("counter"));
+    }
+
+    @Test(expected = SMSecretNotFoundException.class)
+    public void compareAndSetDeleted() {
+        service.createSecret("secret", "v1");
+        service.deleteSecret("secret");
+
+        service.compareAndSetSecretValue("secret", "v1", "v2");
+    }
+
+    @Test
+    public void listSecrets() {
+        service.createSecret("app/db", "1");
+        service.createSecret("app/api", "2");
+        service.createSecret("other", "3");
+
+        try (Stream<String> secrets = service.listSecrets("app/")) {
+            assertEquals(Arrays.asList("app/api", "app/db"), secrets.sorted().collect(Collectors.toList()));
+        }
+        // same as the Name filter of Secrets Manager
+        try (Stream<String> secrets = service.listSecrets("APP/D")) {
+            assertEquals(Arrays.asList("app/db"), secrets.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void exportReadableByMock() {
+        service.createSecret("app/db", "password");
+        service.updateSecretDescription("app/db", "database");
+        service.createSecret("other", "value");
+
+        assertEquals(2, service.exportTo(EXPORT_DIRECTORY));
+
+        MockSMService mock = new MockSMService(EXPORT_DIRECTORY);
+        assertEquals("password", mock.getSecret("app/db"));
+        assertEquals("value", mock.getSecret("other"));
+    }
+}
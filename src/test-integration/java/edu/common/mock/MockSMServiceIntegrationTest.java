@@ -5,7 +5,14 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
@@ -15,6 +22,12 @@ import org.junit.Test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import edu.common.bulk.BulkOperationResult;
+import edu.common.exception.SMSecretNotFoundException;
+import edu.common.exception.SMServiceException;
+import edu.common.exception.SMTransientException;
+import edu.common.exception.SMValidationException;
+
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphanumeric;
 import static org.junit.Assert.assertEquals;
@@ -119,7 +132,7 @@ public class MockSMServiceIntegrationTest {
         mockSMService.createSecret(secretId, "");
     }
 
-    @Test(expected = IllegalArgumentException.class)
+    @Test(expected = SMValidationException.class)
     public void createDuplicateSecret() throws IOException {
         String expectedContent = randomAlphanumeric(15);
 
@@ -138,7 +151,34 @@ public class MockSMServiceIntegrationTest {
         assertEquals(expectedContent, readContent);
     }
 
-    @Test(expected = IllegalArgumentException.class)
+    @Test
+    public void ioErrorIsRetryable() throws IOException {
+        String targetDirectory = "./target/" + randomAlphabetic(15);
+        directoriesToCleanup.add(targetDirectory);
+        // a file where the secret directory should be
+        FileUtils.writeStringToFile(new File(targetDirectory), "", Charset.defaultCharset());
+
+        try {
+            new MockSMService(targetDirectory + "/").createSecret(secretId, "value");
+            Assert.fail("Secret should not be created");
+        } catch (SMTransientException e) {
+            Assert.assertTrue(e.isRetryable());
+        }
+    }
+
+    @Test
+    public void corruptFileIsNotRetryable() throws IOException {
+        FileUtils.writeStringToFile(new File(DEFAULT_PATH + secretId + FILE_EXTENSION), "{", Charset.defaultCharset());
+
+        try {
+            mockSMService.getSecret(secretId);
+            Assert.fail("Corrupt secret should not be read");
+        } catch (SMServiceException e) {
+            Assert.assertFalse(e.isRetryable());
+        }
+    }
+
+    @Test(expected = SMSecretNotFoundException.class)
     public void getSecretDoesNotExist() {
         mockSMService.getSecret(secretId);
     }
@@ -164,7 +204,7 @@ public class MockSMServiceIntegrationTest {
         assertEquals(expectedContent, readContent);
     }
 
-    @Test(expected = IllegalArgumentException.class)
+    @Test(expected = SMSecretNotFoundException.class)
     public void updateSecretDoesNotExist() {
         String expectedContent = randomAlphanumeric(15);
 
@@ -244,7 +284,7 @@ public class MockSMServiceIntegrationTest {
         assertEquals(expectedDescription, values.getSecretDescription());
     }
 
-    @Test(expected = IllegalArgumentException.class)
+    @Test(expected = SMSecretNotFoundException.class)
     public void updateDescriptionSecretNotFound() {
         mockSMService.updateSecretDescription(secretId, randomAlphabetic(15));
     }
@@ -264,4 +304,106 @@ public class MockSMServiceIntegrationTest {
         mockSMService.createSecret(secretId, randomAlphanumeric(15));
         mockSMService.updateSecretDescription(secretId, null);
     }
+
+    @Test
+    public void getSecretDoesNotExistIsClassified() {
+        try {
+            mockSMService.getSecret(secretId);
+            Assert.fail("Expected SMSecretNotFoundException");
+        } catch (SMSecretNotFoundException e) {
+            assertEquals(SMSecretNotFoundException.ERROR_CODE, e.getErrorCode());
+            Assert.assertFalse(e.isRetryable());
+            // expected outcome, no stack trace captured
+            assertEquals(0, e.getStackTrace().length);
+        }
+    }
+
+    @Test
+    public void getSecretAsync() {
+        String expectedContent = randomAlphanumeric(15);
+        mockSMService.createSecret(secretId, expectedContent);
+
+        assertEquals(expectedContent, mockSMService.getSecretAsync(secretId).join());
+    }
+
+    @Test
+    public void getSecrets() {
+        String otherSecretId = randomAlphabetic(15);
+        mockSMService.createSecret(secretId, "first");
+        mockSMService.createSecret(otherSecretId, "second");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            mockSMService.setExecutor(executor);
+            Map<String, String> secrets = mockSMService.getSecrets(Arrays.asList(secretId, otherSecretId));
+
+            assertEquals(2, secrets.size());
+            assertEquals("first", secrets.get(secretId));
+            assertEquals("second", secrets.get(otherSecretId));
+        } finally {
+            mockSMService.deleteSecret(otherSecretId);
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = SMSecretNotFoundException.class)
+    public void getSecretsOneDoesNotExist() {
+        mockSMService.createSecret(secretId, "first");
+
+        mockSMService.getSecrets(Arrays.asList(secretId, randomAlphabetic(15)));
+    }
+
+    @Test
+    public void createAndDeleteSecrets() {
+        String otherSecretId = randomAlphabetic(15);
+        mockSMService.createSecret(otherSecretId, "already there");
+
+        Map<String, String> secrets = new LinkedHashMap<>();
+        secrets.put(secretId, "first");
+        secrets.put(otherSecretId, "duplicate");
+        Map<String, BulkOperationResult> created = mockSMService.createSecrets(secrets);
+
+        assertEquals(Arrays.asList(secretId, otherSecretId), new ArrayList<>(created.keySet()));
+        Assert.assertTrue(created.get(secretId).isSuccess());
+        Assert.assertFalse(created.get(otherSecretId).isSuccess());
+        Assert.assertTrue(created.get(otherSecretId).getError() instanceof SMValidationException);
+        assertEquals("first", mockSMService.getSecret(secretId));
+
+        Map<String, BulkOperationResult> deleted = mockSMService.deleteSecrets(Arrays.asList(secretId, otherSecretId), true);
+        Assert.assertTrue(deleted.get(secretId).isSuccess());
+        Assert.assertTrue(deleted.get(otherSecretId).isSuccess());
+        Assert.assertFalse(new File(DEFAULT_PATH+secretId+FILE_EXTENSION).exists());
+        Assert.assertFalse(new File(DEFAULT_PATH+otherSecretId+FILE_EXTENSION).exists());
+    }
+
+    @Test
+    public void listSecrets() {
+        String targetDirectory = "./target/list/";
+        directoriesToCleanup.add(targetDirectory);
+        MockSMService listedService = new MockSMService(targetDirectory);
+        listedService.createSecret("app/db", "first");
+        listedService.createSecret("app/api/key", "second");
+        listedService.createSecret("other", "third");
+
+        try (Stream<String> secrets = listedService.listSecrets(null)) {
+            assertEquals(Arrays.asList("app/api/key", "app/db", "other"), secrets.sorted().collect(Collectors.toList()));
+        }
+        try (Stream<String> secrets = listedService.listSecrets("app/a")) {
+            assertEquals(Arrays.asList("app/api/key"), secrets.collect(Collectors.toList()));
+        }
+        try (Stream<String> secrets = listedService.listSecrets("ot")) {
+            assertEquals(1, secrets.limit(5).count());
+        }
+        // same as the Name filter of Secrets Manager
+        try (Stream<String> secrets = listedService.listSecrets("App/A")) {
+            assertEquals(Arrays.asList("app/api/key"), secrets.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void listSecretsEmptyDirectory() {
+        try (Stream<String> secrets = new MockSMService("./target/" + randomAlphabetic(15)).listSecrets(null)) {
+            assertEquals(0, secrets.count());
+        }
+    }
 }
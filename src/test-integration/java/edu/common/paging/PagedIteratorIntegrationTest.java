@@ -0,0 +1,107 @@
+package edu.common.paging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PagedIteratorIntegrationTest {
+
+    private ExecutorService executor;
+
+    private AtomicInteger fetches;
+
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        fetches = new AtomicInteger();
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Pages of 2 items: [0, 1], [2, 3], [4, 5], an empty page, then [6].
+     */
+    private Page<Integer> fetch(String nextToken) {
+        fetches.incrementAndGet();
+        int page = nextToken == null ? 0 : Integer.parseInt(nextToken);
+        switch (page) {
+            case 3:
+                return new Page<>(Collections.emptyList(), "4");
+            case 4:
+                return new Page<>(Collections.singletonList(6), null);
+            default:
+                return new Page<>(Arrays.asList(page * 2, page * 2 + 1), String.valueOf(page + 1));
+        }
+    }
+
+    @Test
+    public void iteratesEveryPage() {
+        PagedIterator<Integer> iterator = new PagedIterator<>(this::fetch, null);
+
+        List<Integer> items = new ArrayList<>();
+        iterator.forEachRemaining(items::add);
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), items);
+        assertEquals(5, iterator.getPagesFetched());
+    }
+
+    @Test
+    public void fetchesLazily() {
+        PagedIterator<Integer> iterator = new PagedIterator<>(this::fetch, null);
+        assertEquals(0, fetches.get());
+
+        try (Stream<Integer> stream = iterator.stream()) {
+            assertEquals(Arrays.asList(0, 1, 2), stream.limit(3).collect(Collectors.toList()));
+        }
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void prefetchesNextPage() throws Exception {
+        CountDownLatch secondPageRequested = new CountDownLatch(1);
+        PagedIterator<Integer> iterator = new PagedIterator<>(token -> {
+            if ("1".equals(token)) {
+                secondPageRequested.countDown();
+            }
+            return fetch(token);
+        }, executor);
+
+        assertEquals(Integer.valueOf(0), iterator.next());
+        assertTrue(secondPageRequested.await(5, TimeUnit.SECONDS));
+
+        List<Integer> items = new ArrayList<>();
+        iterator.forEachRemaining(items::add);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), items);
+    }
+
+    @Test
+    public void closeStopsIteration() {
+        PagedIterator<Integer> iterator = new PagedIterator<>(this::fetch, executor);
+        Stream<Integer> stream = iterator.stream();
+        assertEquals(Integer.valueOf(0), iterator.next());
+
+        stream.close();
+
+        assertFalse(iterator.hasNext());
+        assertEquals(1, iterator.getPagesFetched());
+    }
+}
@@ -0,0 +1,126 @@
+package edu.common.trace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.common.SecretOperation;
+import edu.common.exception.SMSecretNotFoundException;
+import edu.common.mock.MockSMService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TraceReplayerIntegrationTest {
+
+    private static final String TARGET_DIRECTORY = "./target/trace/";
+
+    private MockSMService mockSMService;
+
+    private ExecutorService executor;
+
+    private TraceReplayer replayer;
+
+    @Before
+    public void setup() {
+        mockSMService = new MockSMService(TARGET_DIRECTORY);
+        // the mock stores secrets in files and is not safe for concurrent writes of the same secret
+        executor = Executors.newSingleThreadExecutor();
+        replayer = new TraceReplayer(mockSMService);
+        replayer.setExecutor(executor);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+        FileUtils.deleteQuietly(new File(TARGET_DIRECTORY));
+    }
+
+    @Test
+    public void generatedTraceIsSkewedAndReproducible() {
+        ZipfTraceGenerator generator = new ZipfTraceGenerator(100, 1.1, 2000, 0.05, Duration.ofSeconds(1), 3, 10, 42);
+        SecretTrace trace = generator.generate(Duration.ofSeconds(5));
+
+        Map<String, Long> hits = trace.getEvents().stream().collect(Collectors.groupingBy(TraceEvent::getKey, Collectors.counting()));
+        assertTrue(hits.get("k0") > 10 * hits.getOrDefault("k50", 1L));
+        assertEquals(trace.getEvents().toString(), generator.generate(Duration.ofSeconds(5)).getEvents().toString());
+        assertNotEquals(trace.getEvents().toString(),
+                new ZipfTraceGenerator(100, 1.1, 2000, 0.05, Duration.ofSeconds(1), 3, 10, 43).generate(Duration.ofSeconds(5)).getEvents().toString());
+    }
+
+    @Test
+    public void traceRoundTrip() throws Exception {
+        SecretTrace trace = new ZipfTraceGenerator(10, 1, 1000, 0.1, 7).generate(Duration.ofMillis(100));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.write(out);
+
+        SecretTrace read = SecretTrace.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(trace.getEvents().toString(), read.getEvents().toString());
+    }
+
+    @Test
+    public void recordsHashedIds() {
+        RecordingSecretManagerService recorder = new RecordingSecretManagerService(mockSMService, "salt");
+        recorder.createSecret("db/prod", "v1");
+        recorder.getSecret("db/prod");
+        try {
+            recorder.getSecret("missing");
+            fail();
+        } catch (SMSecretNotFoundException expected) {
+        }
+
+        SecretTrace trace = recorder.getTrace();
+        assertEquals(3, trace.size());
+        assertEquals(recorder.hash("db/prod"), trace.getEvents().get(0).getKey());
+        assertEquals(trace.getEvents().get(0).getKey(), trace.getEvents().get(1).getKey());
+        assertFalse(trace.getEvents().get(0).getKey().contains("db"));
+        assertEquals("SMSecretNotFoundException", trace.getEvents().get(2).getError());
+    }
+
+    @Test
+    public void replayReportsEveryCall() throws Exception {
+        SecretTrace trace = new ZipfTraceGenerator(20, 1, 500, 0.1, Duration.ofMillis(200), 2, 5, 1).generate(Duration.ofMillis(600));
+
+        ReplayReport report = replayer.replay(trace, 4);
+
+        assertEquals(trace.size(), report.getEvents());
+        assertEquals(0, report.getErrors());
+        Map<SecretOperation, Long> expected = trace.getEvents().stream()
+                .collect(Collectors.groupingBy(TraceEvent::getOperation, Collectors.counting()));
+        expected.forEach((operation, count) -> assertEquals(count.intValue(), report.getOperations().get(operation).getCount()));
+
+        JsonNode json = new ObjectMapper().readTree(report.toJson());
+        assertEquals(trace.size(), json.get("events").asInt());
+        assertTrue(json.get("latencyMicros").has("p99"));
+        assertTrue(json.get("operations").has("GET"));
+    }
+
+    @Test
+    public void replayReportsErrors() {
+        SecretTrace trace = new SecretTrace(Arrays.asList(
+                new TraceEvent(0, SecretOperation.GET, "a", 0, null),
+                new TraceEvent(1_000, SecretOperation.DELETE, "a", 0, null),
+                new TraceEvent(2_000, SecretOperation.GET, "a", 0, null)));
+
+        ReplayReport report = replayer.replay(trace, 1);
+
+        assertEquals(1, report.getErrors());
+        assertEquals(Long.valueOf(1), report.getOperations().get(SecretOperation.GET).getErrorsByType().get("SMSecretNotFoundException"));
+    }
+}
@@ -0,0 +1,183 @@
+package edu.common.writebehind;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.common.mock.MockSMService;
+
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WriteBehindSecretManagerServiceIntegrationTest {
+
+    private static final String TARGET_DIRECTORY = "./target/write-behind/";
+
+    private CountingMockSMService mockSMService;
+
+    private WriteBehindSecretManagerService writeBehindService;
+
+    private String secretId;
+
+    static class CountingMockSMService extends MockSMService {
+        private final AtomicInteger updates = new AtomicInteger();
+
+        CountingMockSMService(String targetDirectory) {
+            super(targetDirectory);
+        }
+
+        @Override
+        public void updateSecretValue(String secretId, String secretString) {
+            updates.incrementAndGet();
+            super.updateSecretValue(secretId, secretString);
+        }
+    }
+
+    @Before
+    public void setup() {
+        secretId = randomAlphabetic(15);
+        mockSMService = new CountingMockSMService(TARGET_DIRECTORY);
+        mockSMService.createSecret(secretId, "initial");
+    }
+
+    @After
+    public void teardown() {
+        if (writeBehindService != null) {
+            writeBehindService.close();
+        }
+        FileUtils.deleteQuietly(new File(TARGET_DIRECTORY));
+    }
+
+    @Test
+    public void coalescesUpdatesWithinWindow() throws Exception {
+        writeBehindService = new WriteBehindSecretManagerService(mockSMService, Duration.ofHours(1));
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(writeBehindService.updateSecretValueAsync(secretId, "value-" + i));
+        }
+
+        // nothing written yet, but reads through the service see the pending value
+        assertEquals(0, mockSMService.updates.get());
+        assertEquals("initial", mockSMService.getSecret(secretId));
+        assertEquals("value-19", writeBehindService.getSecret(secretId));
+
+        writeBehindService.flush().get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, mockSMService.updates.get());
+        assertEquals("value-19", mockSMService.getSecret(secretId));
+        for (CompletableFuture<Void> future : futures) {
+            assertTrue(future.isDone());
+            assertFalse(future.isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    public void writesWhenWindowCloses() throws Exception {
+        writeBehindService = new WriteBehindSecretManagerService(mockSMService, Duration.ofMillis(50));
+
+        writeBehindService.updateSecretValueAsync(secretId, "first");
+        writeBehindService.updateSecretValueAsync(secretId, "second").get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, mockSMService.updates.get());
+        assertEquals("second", mockSMService.getSecret(secretId));
+        assertEquals(0, writeBehindService.getPendingCount());
+    }
+
+    @Test
+    public void flushedWriteIsGoneWhenStored() throws Exception {
+        // writes run on the flushing thread, inside flush()
+        mockSMService.setExecutor(Runnable::run);
+        writeBehindService = new WriteBehindSecretManagerService(mockSMService, Duration.ofHours(1));
+
+        for (int i = 0; i < 50; i++) {
+            CompletableFuture<Void> future = writeBehindService.updateSecretValueAsync(secretId, "value-" + i);
+            writeBehindService.flush().get(10, TimeUnit.SECONDS);
+
+            assertTrue(future.isDone());
+            assertEquals(0, writeBehindService.getPendingCount());
+            assertEquals("value-" + i, mockSMService.getSecret(secretId));
+        }
+    }
+
+    @Test
+    public void closeFlushesPendingUpdates() {
+        writeBehindService = new WriteBehindSecretManagerService(mockSMService, Duration.ofHours(1));
+        writeBehindService.updateSecretValue(secretId, "on-close");
+
+        writeBehindService.close();
+
+        assertEquals("on-close", mockSMService.getSecret(secretId));
+    }
+
+    @Test
+    public void failedWriteCompletesFutureExceptionally() throws Exception {
+        writeBehindService = new WriteBehindSecretManagerService(mockSMService, Duration.ofHours(1));
+        String missingSecretId = randomAlphabetic(15);
+
+        CompletableFuture<Void> future = writeBehindService.updateSecretValueAsync(missingSecretId, "value");
+        writeBehindService.flush().handle((result, error) -> null).get(10, TimeUnit.SECONDS);
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void deleteWaitsForWriteInFlight() throws Exception {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        MockSMService slowService = new MockSMService(TARGET_DIRECTORY) {
+            @Override
+            public void updateSecretValue(String secretId, String secretString) {
+                writeStarted.countDown();
+                try {
+                    releaseWrite.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.updateSecretValue(secretId, secretString);
+                calls.add("update");
+            }
+
+            @Override
+            public void deleteSecret(String secretId) {
+                calls.add("delete");
+                super.deleteSecret(secretId);
+            }
+        };
+        writeBehindService = new WriteBehindSecretManagerService(slowService, Duration.ofHours(1));
+
+        writeBehindService.updateSecretValueAsync(secretId, "late");
+        writeBehindService.flush();
+        assertTrue(writeStarted.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> delete = CompletableFuture.runAsync(() -> writeBehindService.deleteSecret(secretId));
+
+        Thread.sleep(100);
+        assertFalse(delete.isDone());
+        releaseWrite.countDown();
+        delete.get(10, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList("update", "delete"), calls);
+        assertFalse(slowService.listSecrets(secretId).findAny().isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void updateSecretValueBlank() {
+        writeBehindService = new WriteBehindSecretManagerService(mockSMService, Duration.ofHours(1));
+        writeBehindService.updateSecretValue(secretId, "");
+    }
+}
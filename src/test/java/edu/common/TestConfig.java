@@ -1,6 +1,7 @@
 package edu.common;
 
 import edu.common.aws.AWSSecretManagerService;
+import edu.common.aws.v2.AWSSecretManagerV2Service;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -30,6 +31,11 @@ public class TestConfig {
         return new AWSSecretManagerService(access_key, secret_key, endpoint, region);
     }
 
+    @Bean
+    public AWSSecretManagerV2Service smV2Service(){
+        return new AWSSecretManagerV2Service(access_key, secret_key, endpoint, region);
+    }
+
 
     public void setEndpoint(String endpoint) {
         this.endpoint = endpoint;
@@ -0,0 +1,100 @@
+package edu.common.aws;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import edu.common.exception.SMAccessDeniedException;
+import edu.common.exception.SMSecretNotFoundException;
+import edu.common.exception.SMServiceException;
+import edu.common.exception.SMThrottledException;
+import edu.common.exception.SMTransientException;
+import edu.common.exception.SMValidationException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AWSExceptionTranslatorUnitTest {
+
+    @Test
+    public void notFound() {
+        SMServiceException e = translate("ResourceNotFoundException", 400);
+        assertEquals(SMSecretNotFoundException.class, e.getClass());
+        assertEquals("ResourceNotFoundException", e.getErrorCode());
+        assertEquals("message", e.getMessage());
+        assertFalse(e.isRetryable());
+    }
+
+    @Test
+    public void throttled() {
+        assertEquals(SMThrottledException.class, translate("ThrottlingException", 400).getClass());
+        assertEquals(SMThrottledException.class, translate("TooManyRequestsException", 400).getClass());
+        assertEquals(SMThrottledException.class, translate("SomethingElse", 429).getClass());
+        assertTrue(translate("ThrottlingException", 400).isRetryable());
+    }
+
+    @Test
+    public void accessDenied() {
+        assertEquals(SMAccessDeniedException.class, translate("AccessDeniedException", 400).getClass());
+        assertEquals(SMAccessDeniedException.class, translate("ExpiredTokenException", 400).getClass());
+        assertEquals(SMAccessDeniedException.class, translate("SomethingElse", 401).getClass());
+        assertEquals(SMAccessDeniedException.class, translate("SomethingElse", 403).getClass());
+        assertFalse(translate("AccessDeniedException", 400).isRetryable());
+    }
+
+    @Test
+    public void validation() {
+        assertEquals(SMValidationException.class, translate("InvalidParameterException", 400).getClass());
+        assertEquals(SMValidationException.class, translate("InvalidRequestException", 400).getClass());
+        assertEquals(SMValidationException.class, translate("ResourceExistsException", 400).getClass());
+        assertFalse(translate("InvalidParameterException", 400).isRetryable());
+    }
+
+    @Test
+    public void serverErrorIsTransient() {
+        SMServiceException e = translate("InternalServiceError", 500);
+        assertEquals(SMTransientException.class, e.getClass());
+        assertEquals("InternalServiceError", e.getErrorCode());
+        assertTrue(e.isRetryable());
+        assertEquals(SMTransientException.class, translate("ServiceUnavailable", 503).getClass());
+    }
+
+    @Test
+    public void otherClientErrorIsNotRetryable() {
+        SMServiceException e = translate("LimitExceededException", 400);
+        assertEquals(SMServiceException.class, e.getClass());
+        assertEquals("LimitExceededException", e.getErrorCode());
+        assertFalse(e.isRetryable());
+    }
+
+    @Test
+    public void retryableClientErrorIsTransient() {
+        SMServiceException e = AWSExceptionTranslator.translate(new SdkClientException("Unable to execute HTTP request"));
+        assertEquals(SMTransientException.class, e.getClass());
+        assertEquals(AWSExceptionTranslator.CLIENT_ERROR_CODE, e.getErrorCode());
+        assertTrue(e.isRetryable());
+    }
+
+    @Test
+    public void otherException() {
+        SMServiceException e = AWSExceptionTranslator.translate(new IllegalStateException("closed"));
+        assertEquals(SMServiceException.class, e.getClass());
+        assertFalse(e.isRetryable());
+    }
+
+    @Test
+    public void keepsServiceException() {
+        SMServiceException original = new SMValidationException("invalid");
+        assertSame(original, AWSExceptionTranslator.translate(original));
+    }
+
+    private static SMServiceException translate(String errorCode, int statusCode) {
+        AmazonServiceException ase = new AmazonServiceException("message");
+        ase.setErrorCode(errorCode);
+        ase.setStatusCode(statusCode);
+        SMServiceException e = AWSExceptionTranslator.translate(ase);
+        assertSame(ase, e.getCause());
+        return e;
+    }
+}
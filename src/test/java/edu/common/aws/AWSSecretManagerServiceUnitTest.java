@@ -0,0 +1,44 @@
+package edu.common.aws;
+
+import com.amazonaws.services.secretsmanager.AbstractAWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import edu.common.exception.SMServiceException;
+import edu.common.exception.SMValidationException;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class AWSSecretManagerServiceUnitTest {
+
+    @Test
+    public void blankValueIsValidationError() {
+        assertBlankValue(new GetSecretValueResult().withName("secret").withSecretString(" "));
+    }
+
+    @Test
+    public void binaryValueIsValidationError() {
+        assertBlankValue(new GetSecretValueResult().withName("secret").withSecretBinary(ByteBuffer.wrap(new byte[] {1})));
+    }
+
+    private static void assertBlankValue(GetSecretValueResult result) {
+        AWSSecretManagerService service = new AWSSecretManagerService(new AbstractAWSSecretsManager() {
+            @Override
+            public GetSecretValueResult getSecretValue(GetSecretValueRequest request) {
+                return result;
+            }
+        });
+        try {
+            service.getSecret("secret");
+            fail("Expected SMValidationException");
+        } catch (SMServiceException e) {
+            assertEquals(SMValidationException.class, e.getClass());
+            assertEquals(SMValidationException.BLANK_VALUE_ERROR_CODE, e.getErrorCode());
+            assertFalse(e.isRetryable());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package edu.common.aws.v2;
+
+import edu.common.exception.SMAccessDeniedException;
+import edu.common.exception.SMSecretNotFoundException;
+import edu.common.exception.SMServiceException;
+import edu.common.exception.SMThrottledException;
+import edu.common.exception.SMTransientException;
+import edu.common.exception.SMValidationException;
+import org.junit.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.net.ConnectException;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AWSV2ExceptionTranslatorUnitTest {
+
+    @Test
+    public void notFound() {
+        SMServiceException e = translate("ResourceNotFoundException", 400);
+        assertEquals(SMSecretNotFoundException.class, e.getClass());
+        assertEquals("ResourceNotFoundException", e.getErrorCode());
+        assertEquals("message", e.getMessage());
+        assertFalse(e.isRetryable());
+    }
+
+    @Test
+    public void throttled() {
+        assertEquals(SMThrottledException.class, translate("ThrottlingException", 400).getClass());
+        assertEquals(SMThrottledException.class, translate("TooManyRequestsException", 400).getClass());
+        assertEquals(SMThrottledException.class, translate("SomethingElse", 429).getClass());
+        assertTrue(translate("ThrottlingException", 400).isRetryable());
+    }
+
+    @Test
+    public void accessDenied() {
+        assertEquals(SMAccessDeniedException.class, translate("AccessDeniedException", 400).getClass());
+        assertEquals(SMAccessDeniedException.class, translate("ExpiredTokenException", 400).getClass());
+        assertEquals(SMAccessDeniedException.class, translate("SomethingElse", 401).getClass());
+        assertEquals(SMAccessDeniedException.class, translate("SomethingElse", 403).getClass());
+        assertFalse(translate("AccessDeniedException", 400).isRetryable());
+    }
+
+    @Test
+    public void validation() {
+        assertEquals(SMValidationException.class, translate("InvalidParameterException", 400).getClass());
+        assertEquals(SMValidationException.class, translate("InvalidRequestException", 400).getClass());
+        assertEquals(SMValidationException.class, translate("ResourceExistsException", 400).getClass());
+        assertFalse(translate("InvalidParameterException", 400).isRetryable());
+    }
+
+    @Test
+    public void serverErrorIsTransient() {
+        SMServiceException e = translate("InternalServiceError", 500);
+        assertEquals(SMTransientException.class, e.getClass());
+        assertEquals("InternalServiceError", e.getErrorCode());
+        assertTrue(e.isRetryable());
+        assertEquals(SMTransientException.class, translate("ServiceUnavailable", 503).getClass());
+    }
+
+    @Test
+    public void otherClientErrorIsNotRetryable() {
+        SMServiceException e = translate("LimitExceededException", 400);
+        assertEquals(SMServiceException.class, e.getClass());
+        assertEquals("LimitExceededException", e.getErrorCode());
+        assertFalse(e.isRetryable());
+    }
+
+    @Test
+    public void unwrapsCompletionException() {
+        AwsServiceException ase = serviceException("ThrottlingException", 400);
+        SMServiceException e = AWSV2ExceptionTranslator.translate(new CompletionException(ase));
+        assertEquals(SMThrottledException.class, e.getClass());
+        assertSame(ase, e.getCause());
+    }
+
+    @Test
+    public void ioErrorIsTransient() {
+        SdkClientException sce = SdkClientException.builder()
+                .message("Unable to execute HTTP request")
+                .cause(new ConnectException("Connection refused"))
+                .build();
+        SMServiceException e = AWSV2ExceptionTranslator.translate(sce);
+        assertEquals(SMTransientException.class, e.getClass());
+        assertEquals(AWSV2ExceptionTranslator.CLIENT_ERROR_CODE, e.getErrorCode());
+        assertTrue(e.isRetryable());
+    }
+
+    @Test
+    public void timeoutIsTransient() {
+        SMServiceException e = AWSV2ExceptionTranslator.translate(ApiCallTimeoutException.create(1000));
+        assertEquals(SMTransientException.class, e.getClass());
+        assertTrue(e.isRetryable());
+    }
+
+    @Test
+    public void otherClientExceptionIsNotRetryable() {
+        SMServiceException e = AWSV2ExceptionTranslator.translate(SdkClientException.create("Unable to load region"));
+        assertEquals(SMServiceException.class, e.getClass());
+        assertFalse(e.isRetryable());
+    }
+
+    @Test
+    public void keepsServiceException() {
+        SMServiceException original = new SMValidationException("invalid");
+        assertSame(original, AWSV2ExceptionTranslator.translate(original));
+        assertSame(original, AWSV2ExceptionTranslator.translate(new CompletionException(original)));
+    }
+
+    private static SMServiceException translate(String errorCode, int statusCode) {
+        AwsServiceException ase = serviceException(errorCode, statusCode);
+        SMServiceException e = AWSV2ExceptionTranslator.translate(ase);
+        assertSame(ase, e.getCause());
+        return e;
+    }
+
+    private static AwsServiceException serviceException(String errorCode, int statusCode) {
+        return AwsServiceException.builder()
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode(errorCode).errorMessage("message").build())
+                .statusCode(statusCode)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package edu.common.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the executors match the runtime: platform threads on Java 11-20, virtual threads on Java 21+.
+ * <p>
+ * A multi-release jar only selects its Java 21 classes when it is loaded as a jar, so on Java 21 the {@code java21}
+ * profile runs this test against the packaged jar instead of {@code target/classes}.
+ */
+public class SecretManagerExecutorsUnitTest {
+
+    private static final boolean JAVA_21 = Runtime.version().feature() >= 21;
+
+    @Test
+    public void virtualThreadModeMatchesRuntime() {
+        assertEquals(JAVA_21, SecretManagerExecutors.isVirtualThreadMode());
+    }
+
+    @Test
+    public void blockingExecutorThreads() throws Exception {
+        ExecutorService executor = SecretManagerExecutors.newBlockingExecutor("unit-test");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+            assertEquals(JAVA_21, isVirtual(thread));
+            assertTrue(thread.getName().startsWith("unit-test-"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void defaultExecutorThreads() throws Exception {
+        Thread thread = SecretManagerExecutors.defaultExecutor().submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+        assertEquals(JAVA_21, isVirtual(thread));
+        assertTrue(thread.getName().startsWith("secret-manager-"));
+    }
+
+    /**
+     * {@code Thread.isVirtual()} through reflection, since the tests are compiled for Java 11.
+     */
+    private static boolean isVirtual(Thread thread) throws Exception {
+        if (!JAVA_21) {
+            return false;
+        }
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}